@@ -1,52 +1,157 @@
-CREATE TABLE LOG_ASISTENCIA (
-    id_log NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-    user_id NUMBER,
-    accion VARCHAR2(20),
-    fecha_hora TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    ip_address VARCHAR2(45),
-    detalle VARCHAR2(500)
+-- Migracion del esquema Oracle. Las tablas base (users, roles, user_roles, ASISTENCIA, JUSTIFICACION,
+-- LOG_ASISTENCIA y LOG_JUSTIFICACION) ya existen de la version anterior; la aplicacion arranca con
+-- ddl-auto=validate, asi que este script se ejecuta antes de desplegarla. Orden: secuencias, tablas e
+-- indices, datos y, al final, los procedimientos, que ya encuentran todas las tablas que leen.
+-- SQL*Plus / SQLcl: las sentencias SQL terminan en ';' y cada bloque PL/SQL (DECLARE, BEGIN,
+-- CREATE PROCEDURE) en una linea con '/'.
+
+-- Secuencias para la generacion de IDs (pooled, allocationSize = 50) que permiten el batching de inserts.
+-- Arrancan en MAX(id) + 50: Hibernate toma cada valor como el limite superior de un bloque de 50 IDs.
+-- En H2 (perfiles locales) las crea Hibernate con ddl-auto; en Oracle (ddl-auto=validate) solo las comprueba.
+DECLARE
+    PROCEDURE crear_secuencia(p_secuencia VARCHAR2, p_tabla VARCHAR2) IS
+        v_inicio NUMBER;
+    BEGIN
+        EXECUTE IMMEDIATE 'SELECT NVL(MAX(id), 0) + 50 FROM ' || p_tabla INTO v_inicio;
+        EXECUTE IMMEDIATE 'CREATE SEQUENCE ' || p_secuencia || ' START WITH ' || v_inicio || ' INCREMENT BY 50';
+    END;
+BEGIN
+    crear_secuencia('SEQ_ASISTENCIA', 'ASISTENCIA');
+    crear_secuencia('SEQ_JUSTIFICACION', 'JUSTIFICACION');
+    crear_secuencia('SEQ_USERS', 'users');
+    crear_secuencia('SEQ_ROLES', 'roles');
+    crear_secuencia('SEQ_USER_ROLES', 'user_roles');
+END;
+/
+
+CREATE SEQUENCE SEQ_OUTBOX_EVENTO START WITH 1 INCREMENT BY 50;
+
+-- Outbox de efectos secundarios del check-in; el despachador lo drena por lotes con SKIP LOCKED
+CREATE TABLE OUTBOX_EVENTO (
+    id NUMBER PRIMARY KEY,
+    tipo VARCHAR2(30) NOT NULL,
+    user_id NUMBER NOT NULL,
+    asistencia_id NUMBER,
+    fecha DATE NOT NULL,
+    entrada TIMESTAMP,
+    salida TIMESTAMP,
+    primera_del_dia NUMBER(1) NOT NULL,
+    creado TIMESTAMP NOT NULL,
+    -- FALLIDO tras app.outbox.reintentos intentos; se reactiva con estado = 'PENDIENTE', intentos = 0
+    estado VARCHAR2(20) DEFAULT 'PENDIENTE' NOT NULL,
+    intentos NUMBER(10) DEFAULT 0 NOT NULL,
+    error VARCHAR2(500)
 );
 
-CREATE TABLE LOG_JUSTIFICACION (
-    id_log NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-    justificacion_id NUMBER,
-    accion VARCHAR2(20),
-    usuario_admin VARCHAR2(50),
-    fecha_hora TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    estado_anterior VARCHAR2(20),
-    estado_nuevo VARCHAR2(20)
+-- Tabla de hechos por usuario y dia; el despachador del outbox la mantiene con cada check-in,
+-- check-out y justificacion. Los reportes de puntualidad la leen en lugar de recorrer ASISTENCIA
+CREATE TABLE ASISTENCIA_DIARIA (
+    user_id NUMBER NOT NULL,
+    fecha DATE NOT NULL,
+    primera_entrada TIMESTAMP,
+    ultima_salida TIMESTAMP,
+    minutos_trabajados NUMBER(10) NOT NULL,
+    sesiones NUMBER(10) NOT NULL,
+    tardanza NUMBER(1) NOT NULL,
+    estado_justificacion VARCHAR2(20),
+    CONSTRAINT PK_ASISTENCIA_DIARIA PRIMARY KEY (user_id, fecha)
 );
 
-CREATE OR REPLACE TRIGGER trg_log_asistencia
-AFTER INSERT OR UPDATE ON ASISTENCIA
-FOR EACH ROW
-DECLARE
-    v_ip VARCHAR2(45) := '127.0.0.1'; -- En produccin usaras SYS_CONTEXT
+CREATE INDEX IDX_ASISTENCIA_DIARIA_FECHA ON ASISTENCIA_DIARIA (fecha, user_id);
+
+-- Resumen diario del panel de administracion (EstadisticaServiceImpl). La fila del dia se crea vacia
+-- y el despachador del outbox suma cada primera entrada
+CREATE TABLE ESTADISTICA_DIARIA (
+    fecha DATE PRIMARY KEY,
+    empleados_activos NUMBER(10) NOT NULL,
+    presentes NUMBER(10) NOT NULL,
+    puntuales NUMBER(10) NOT NULL,
+    tardanzas NUMBER(10) NOT NULL
+);
+
+-- Archivo de periodos cerrados. ArchivoAsistenciaServiceImpl mueve cada noche, en lotes, las sesiones
+-- anteriores al mes previo (app.archivo.meses-activos) conservando su id. Particion mensual por intervalo:
+-- los reportes por rango solo recorren las particiones afectadas y un periodo puede exportarse o
+-- eliminarse con ALTER TABLE ... DROP/EXCHANGE PARTITION
+CREATE TABLE ASISTENCIA_HISTORICO (
+    id NUMBER PRIMARY KEY,
+    user_id NUMBER NOT NULL,
+    entrada TIMESTAMP,
+    salida TIMESTAMP,
+    fecha_registro DATE NOT NULL,
+    estado VARCHAR2(255)
+)
+PARTITION BY RANGE (fecha_registro) INTERVAL (NUMTOYMINTERVAL(1, 'MONTH'))
+(PARTITION p_inicial VALUES LESS THAN (DATE '2020-01-01'));
+
+CREATE INDEX IDX_ASIST_HIST_USR_FECHA_ID ON ASISTENCIA_HISTORICO (user_id, fecha_registro, id) LOCAL;
+
+-- Indice para la busqueda de la ultima sesion del dia (check-in / check-out)
+CREATE INDEX IDX_ASISTENCIA_USR_FECHA ON ASISTENCIA (user_id, fecha_registro, entrada);
+
+-- Indice para la paginacion keyset del historial
+CREATE INDEX IDX_ASISTENCIA_USR_FECHA_ID ON ASISTENCIA (user_id, fecha_registro, id);
+
+-- Purga por retencion (app.auditoria.retencion) en trozos por fecha
+CREATE INDEX IDX_LOG_ASISTENCIA_FECHA ON LOG_ASISTENCIA (fecha_hora);
+CREATE INDEX IDX_LOG_JUSTIFICACION_FECHA ON LOG_JUSTIFICACION (fecha_hora);
+
+-- Los triggers de auditoria (una insercion sincrona por fila en el check-in) se sustituyen por la
+-- escritura por lotes de AuditoriaServiceImpl. ORA-04080: el trigger no existe (instalacion nueva)
 BEGIN
-    INSERT INTO LOG_ASISTENCIA (user_id, accion, detalle)
-    VALUES (
-        :NEW.user_id,
-        CASE WHEN :OLD.id IS NULL THEN 'CHECKIN' ELSE 'CHECKOUT' END,
-        CASE 
-            WHEN :OLD.id IS NULL THEN 'Check-in registrado'
-            ELSE 'Check-out registrado'
-        END
-    );
+    EXECUTE IMMEDIATE 'DROP TRIGGER trg_log_asistencia';
+EXCEPTION
+    WHEN OTHERS THEN
+        IF SQLCODE != -4080 THEN
+            RAISE;
+        END IF;
 END;
+/
 
-CREATE OR REPLACE TRIGGER trg_log_justificacion
-AFTER INSERT OR UPDATE ON JUSTIFICACION
-FOR EACH ROW
 BEGIN
-    INSERT INTO LOG_JUSTIFICACION (
-        justificacion_id, accion, estado_anterior, estado_nuevo
-    ) VALUES (
-        :NEW.id,
-        CASE WHEN :OLD.id IS NULL THEN 'CREACION' ELSE 'APROBACION' END,
-        :OLD.estado,
-        :NEW.estado
-    );
+    EXECUTE IMMEDIATE 'DROP TRIGGER trg_log_justificacion';
+EXCEPTION
+    WHEN OTHERS THEN
+        IF SQLCODE != -4080 THEN
+            RAISE;
+        END IF;
 END;
+/
+
+-- Rol para lectores de tarjetas y kioscos que envian eventos en lote (/api/asistencia/lote)
+INSERT INTO roles (id, name) VALUES (SEQ_ROLES.NEXTVAL, 'KIOSCO');
+
+-- Carga inicial desde el historico (con el despachador detenido y el outbox vacio)
+INSERT INTO ASISTENCIA_DIARIA (user_id, fecha, primera_entrada, ultima_salida, minutos_trabajados, sesiones, tardanza)
+SELECT user_id, fecha_registro, MIN(entrada), MAX(salida),
+       NVL(SUM(EXTRACT(DAY FROM (salida - entrada)) * 1440
+             + EXTRACT(HOUR FROM (salida - entrada)) * 60
+             + EXTRACT(MINUTE FROM (salida - entrada))), 0),
+       COUNT(*),
+       CASE WHEN MIN(entrada) > CAST(TRUNC(MIN(entrada)) AS TIMESTAMP) + INTERVAL '09:10' HOUR TO MINUTE
+            THEN 1 ELSE 0 END
+FROM ASISTENCIA
+GROUP BY user_id, fecha_registro;
+
+-- MIN(estado): APROBADO prevalece sobre PENDIENTE, igual que en el despachador
+MERGE INTO ASISTENCIA_DIARIA d
+USING (SELECT user_id, fecha, MIN(estado) AS estado FROM JUSTIFICACION GROUP BY user_id, fecha) j
+ON (d.user_id = j.user_id AND d.fecha = j.fecha)
+WHEN MATCHED THEN UPDATE SET d.estado_justificacion = j.estado
+WHEN NOT MATCHED THEN INSERT (user_id, fecha, minutos_trabajados, sesiones, tardanza, estado_justificacion)
+    VALUES (j.user_id, j.fecha, 0, 0, 0, j.estado);
+
+-- Carga inicial desde la tabla de hechos (mismo requisito: despachador detenido y outbox vacio)
+INSERT INTO ESTADISTICA_DIARIA (fecha, empleados_activos, presentes, puntuales, tardanzas)
+SELECT d.fecha,
+       (SELECT COUNT(*) FROM users WHERE enabled = 1),
+       COUNT(d.primera_entrada),
+       COUNT(d.primera_entrada) - SUM(CASE WHEN d.primera_entrada IS NOT NULL THEN d.tardanza ELSE 0 END),
+       SUM(CASE WHEN d.primera_entrada IS NOT NULL THEN d.tardanza ELSE 0 END)
+FROM ASISTENCIA_DIARIA d
+GROUP BY d.fecha;
+
+COMMIT;
 
 -- Reporte de puntualidad por empleado
 CREATE OR REPLACE PROCEDURE sp_reporte_puntualidad_empleado(
@@ -57,22 +162,24 @@ CREATE OR REPLACE PROCEDURE sp_reporte_puntualidad_empleado(
 )
 IS
 BEGIN
+    -- Lee la tabla de hechos ASISTENCIA_DIARIA: rango por clave primaria, sin TO_CHAR por fila
     OPEN p_cursor FOR
         SELECT 
             u.username,
-            a.fecha_registro,
-            a.entrada,
+            d.fecha AS fecha_registro,
+            d.primera_entrada AS entrada,
             CASE 
-                WHEN a.entrada IS NULL THEN 'FALTA'
-                WHEN TO_CHAR(a.entrada, 'HH24:MI') > '09:10' THEN 'TARDANZA'
+                WHEN d.primera_entrada IS NULL THEN 'FALTA'
+                WHEN d.tardanza = 1 THEN 'TARDANZA'
                 ELSE 'PUNTUAL'
             END AS estado_puntualidad
-        FROM ASISTENCIA a
-        JOIN users u ON a.user_id = u.id
+        FROM ASISTENCIA_DIARIA d
+        JOIN users u ON d.user_id = u.id
         WHERE u.username = p_username
-          AND a.fecha_registro BETWEEN p_desde AND p_hasta
-        ORDER BY a.fecha_registro;
+          AND d.fecha BETWEEN p_desde AND p_hasta
+        ORDER BY d.fecha;
 END;
+/
 
 -- Reporte general por rango de fechas
 CREATE OR REPLACE PROCEDURE sp_reporte_asistencia_rango(
@@ -82,17 +189,30 @@ CREATE OR REPLACE PROCEDURE sp_reporte_asistencia_rango(
 )
 IS
 BEGIN
+    -- Cada tabla se agrega por usuario antes del JOIN: unir ASISTENCIA y JUSTIFICACION a la vez
+    -- multiplicaba las filas de cada usuario (asistencias x justificaciones) antes del COUNT.
+    -- Misma consulta que ReporteAsistenciaRepository.RESUMEN_RANGO_CON_ARCHIVO (perfiles H2).
+    -- ASISTENCIA_HISTORICO esta particionada por fecha_registro: solo se leen
+    -- las particiones del rango
     OPEN p_cursor FOR
         SELECT 
             u.username,
-            COUNT(*) AS total_dias,
-            COUNT(CASE WHEN a.entrada IS NOT NULL THEN 1 END) AS dias_asistidos,
-            COUNT(CASE WHEN j.id IS NOT NULL AND j.estado = 'APROBADO' THEN 1 END) AS justificaciones_aprobadas
+            NVL(a.total_dias, 0) AS total_dias,
+            NVL(a.dias_asistidos, 0) AS dias_asistidos,
+            NVL(j.justificaciones_aprobadas, 0) AS justificaciones_aprobadas
         FROM users u
-        LEFT JOIN ASISTENCIA a ON u.id = a.user_id 
-            AND a.fecha_registro BETWEEN p_desde AND p_hasta
-        LEFT JOIN JUSTIFICACION j ON u.id = j.user_id 
-            AND j.fecha BETWEEN p_desde AND p_hasta
-        GROUP BY u.username
+        LEFT JOIN (SELECT user_id,
+                          COUNT(DISTINCT fecha_registro) AS total_dias,
+                          COUNT(DISTINCT CASE WHEN entrada IS NOT NULL THEN fecha_registro END) AS dias_asistidos
+                   FROM (SELECT user_id, fecha_registro, entrada FROM ASISTENCIA
+                         UNION ALL
+                         SELECT user_id, fecha_registro, entrada FROM ASISTENCIA_HISTORICO)
+                   WHERE fecha_registro BETWEEN p_desde AND p_hasta
+                   GROUP BY user_id) a ON a.user_id = u.id
+        LEFT JOIN (SELECT user_id, COUNT(*) AS justificaciones_aprobadas
+                   FROM JUSTIFICACION
+                   WHERE estado = 'APROBADO' AND fecha BETWEEN p_desde AND p_hasta
+                   GROUP BY user_id) j ON j.user_id = u.id
         ORDER BY u.username;
-END;
\ No newline at end of file
+END;
+/
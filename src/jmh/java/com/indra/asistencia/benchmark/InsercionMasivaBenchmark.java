@@ -0,0 +1,106 @@
+package com.indra.asistencia.benchmark;
+
+import java.net.ServerSocket;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.indra.asistencia.Application;
+import com.indra.asistencia.models.Asistencia;
+import com.indra.asistencia.models.User;
+import com.indra.asistencia.repository.AsistenciaRepository;
+import com.indra.asistencia.repository.IUserRepository;
+
+/**
+ * Insercion masiva de ASISTENCIA por JPA (saveAll en una transaccion) con los IDs de
+ * secuencia pooled. batchSize=1 es el antes: una sentencia y un viaje a la base por fila,
+ * como con IDENTITY; batchSize=50 es hibernate.jdbc.batch_size de application.properties.
+ * H2 corre como servidor TCP para que cada viaje pase por la red local, como con Oracle.
+ * La puntuacion es en filas por segundo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class InsercionMasivaBenchmark {
+
+    private static final int FILAS = 500;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private Server servidor;
+    private ConfigurableApplicationContext contexto;
+    private TransactionTemplate transactionTemplate;
+    private AsistenciaRepository asistenciaRepo;
+    private IUserRepository userRepo;
+    private LocalDateTime siguienteEntrada;
+
+    @Setup
+    public void setup() throws Exception {
+        int puerto;
+        try (ServerSocket libre = new ServerSocket(0)) {
+            puerto = libre.getLocalPort();
+        }
+        servidor = Server.createTcpServer("-tcpPort", String.valueOf(puerto), "-ifNotExists").start();
+
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        contexto = new SpringApplicationBuilder(Application.class)
+                .run("--spring.profiles.active=perf",
+                        "--app.perf.usuarios=1",
+                        "--app.perf.dias=1",
+                        "--spring.datasource.url=jdbc:h2:tcp://localhost:" + puerto
+                                + "/mem:insercion;MODE=Oracle;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "--server.port=0",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+        transactionTemplate = contexto.getBean(TransactionTemplate.class);
+        asistenciaRepo = contexto.getBean(AsistenciaRepository.class);
+        userRepo = contexto.getBean(IUserRepository.class);
+        siguienteEntrada = LocalDate.now().minusYears(1).atTime(8, 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        contexto.close();
+        servidor.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FILAS)
+    public List<Asistencia> insertarAsistencias() {
+        return transactionTemplate.execute(status -> {
+            // emp1 (id 2) del dataset de GeneradorDatosPerf
+            User empleado = userRepo.getReferenceById(2L);
+            List<Asistencia> filas = new ArrayList<>(FILAS);
+            for (int i = 0; i < FILAS; i++) {
+                siguienteEntrada = siguienteEntrada.plusMinutes(1);
+                filas.add(Asistencia.builder()
+                        .usuario(empleado)
+                        .fechaRegistro(siguienteEntrada.toLocalDate())
+                        .entrada(siguienteEntrada)
+                        .salida(siguienteEntrada.plusHours(8))
+                        .estado("COMPLETADO")
+                        .build());
+            }
+            return asistenciaRepo.saveAll(filas);
+        });
+    }
+}
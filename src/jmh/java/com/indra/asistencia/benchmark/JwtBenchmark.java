@@ -0,0 +1,94 @@
+package com.indra.asistencia.benchmark;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.indra.asistencia.Jwt.JwtPrincipal;
+import com.indra.asistencia.Jwt.JwtUtil;
+import com.indra.asistencia.config.JwtAuthenticationFilter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+/**
+ * Generacion y verificacion de tokens, y el paso por JwtAuthenticationFilter
+ * (token ya verificado: mide la construccion de authorities y del Authentication).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class JwtBenchmark {
+
+    // OncePerRequestFilter marca la peticion; se retira para reutilizarla en cada operacion
+    private static final String YA_FILTRADO = JwtAuthenticationFilter.class.getName() + ".FILTERED";
+
+    private static final FilterChain CADENA_VACIA = (request, response) -> { };
+
+    // Mismo secreto y algoritmo que JwtUtil
+    private static final Algorithm ALGORITHM = Algorithm.HMAC256("mysecretkey001");
+
+    private JwtUtil jwtUtil;
+    private JWTVerifier verifier;
+    private JwtAuthenticationFilter filtro;
+    private String token;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setup() {
+        jwtUtil = new JwtUtil();
+        token = jwtUtil.generateToken("empleado", List.of("ROLE_EMPLEADO", "ROLE_KIOSCO"));
+        jwtUtil.verify(token);
+
+        // Un verificador como el de JwtUtil pero sin la cache de tokens: coste real de la firma HMAC
+        verifier = JWT.require(ALGORITHM).build();
+
+        filtro = new JwtAuthenticationFilter(jwtUtil, new SimpleMeterRegistry());
+        request = new MockHttpServletRequest("GET", "/api/asistencia/estado");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public String generarToken() {
+        return jwtUtil.generateToken("empleado", List.of("ROLE_EMPLEADO"));
+    }
+
+    @Benchmark
+    public DecodedJWT verificarFirma() {
+        return verifier.verify(token);
+    }
+
+    @Benchmark
+    public JwtPrincipal verificarCacheado() {
+        return jwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public Object filtroAutenticacion() throws ServletException, IOException {
+        try {
+            filtro.doFilter(request, response, CADENA_VACIA);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+            request.removeAttribute(YA_FILTRADO);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.indra.asistencia.benchmark;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.indra.asistencia.dto.AsistenciaResponseDto;
+import com.indra.asistencia.dto.AsistenciaView;
+import com.indra.asistencia.dto.JustificacionAdminResponseDto;
+import com.indra.asistencia.dto.JustificacionView;
+import com.indra.asistencia.mappers.AsistenciaMapper;
+import com.indra.asistencia.mappers.JustificacionMapper;
+import com.indra.asistencia.models.Asistencia;
+import com.indra.asistencia.models.User;
+
+/**
+ * Mapeo a DTO de los listados (historial, reportes, justificaciones pendientes), que leen
+ * proyecciones; asistenciaToResponseDto mide el mapeo desde la entidad para comparar.
+ * Con -prof gc el informe incluye gc.alloc.rate.norm (bytes por operacion).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MapperBenchmark {
+
+    @Param({"20", "500"})
+    private int filas;
+
+    private final AsistenciaMapper asistenciaMapper = new AsistenciaMapper();
+    private final JustificacionMapper justificacionMapper = new JustificacionMapper();
+
+    private Asistencia asistencia;
+    private List<AsistenciaView> asistencias;
+    private List<JustificacionView> justificaciones;
+
+    @Setup
+    public void setup() {
+        User usuario = User.builder()
+                .id(1L)
+                .username("empleado")
+                .nombreCompleto("Empleado de Prueba")
+                .enabled(true)
+                .build();
+
+        asistencias = new ArrayList<>(filas);
+        justificaciones = new ArrayList<>(filas);
+        LocalDate hoy = LocalDate.now();
+        for (int i = 0; i < filas; i++) {
+            LocalDate fecha = hoy.minusDays(i);
+            asistencias.add(new AsistenciaView((long) i, usuario.getId(), usuario.getUsername(),
+                    fecha.atTime(9, i % 30), fecha.atTime(18, 0), "COMPLETADO", fecha));
+            justificaciones.add(new JustificacionView((long) i, usuario.getUsername(), usuario.getNombreCompleto(),
+                    fecha, "TARDANZA", "Llegada después de las 09:10 - Sistema automático", "PENDIENTE",
+                    LocalDateTime.now()));
+        }
+        asistencia = Asistencia.builder()
+                .id(0L)
+                .usuario(usuario)
+                .fechaRegistro(hoy)
+                .entrada(hoy.atTime(9, 0))
+                .salida(hoy.atTime(18, 0))
+                .estado("COMPLETADO")
+                .build();
+    }
+
+    @Benchmark
+    public AsistenciaResponseDto asistenciaToResponseDto() {
+        return asistenciaMapper.toResponseDto(asistencia);
+    }
+
+    @Benchmark
+    public List<AsistenciaResponseDto> asistenciaToDtoList() {
+        return asistenciaMapper.toDtoList(asistencias);
+    }
+
+    @Benchmark
+    public List<JustificacionAdminResponseDto> justificacionToAdminDtoList() {
+        return justificacionMapper.toAdminDtoList(justificaciones);
+    }
+}
@@ -0,0 +1,96 @@
+package com.indra.asistencia.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Barrido de tamanio de tabla: repite la prueba de carga con datasets crecientes
+ * (app.perf.usuarios x app.perf.dias) y resume la latencia de check-in por tamanio.
+ *
+ * Cada tamanio arranca la aplicacion sobre su propia base H2 en memoria, que se libera al
+ * cerrar el contexto. El archivo queda fuera del barrido (meses activos que cubren todos
+ * los dias): todas las filas generadas siguen en ASISTENCIA, la tabla en la que inserta el check-in.
+ *
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.main=com.indra.asistencia.loadtest.BarridoCheckin
+ *     [-Dloadtest.args="--tamanios=100:146,1000:146,2000:730 --concurrencia=100"]
+ */
+public final class BarridoCheckin {
+
+    // usuarios:dias -> ~10k, 100k, 1M, 2,5M y 10M filas de ASISTENCIA (dias laborables con un 4% de ausencias)
+    static final String TAMANIOS_POR_DEFECTO = "100:146,1000:146,2000:730,5000:730,20000:730";
+
+    private static final String[] POR_DEFECTO = {
+            "--concurrencia=100",
+            "--calentamiento=PT5S",
+            "--duracion=PT30S",
+            "--mix=checkin:1",
+            "--informe=target/loadtest-barrido-checkin.json"
+    };
+
+    private BarridoCheckin() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String tamanios = TAMANIOS_POR_DEFECTO;
+        List<String> argumentos = new ArrayList<>(List.of(POR_DEFECTO));
+        for (String arg : args) {
+            if (arg.startsWith("--tamanios=")) {
+                tamanios = arg.substring("--tamanios=".length());
+            } else {
+                argumentos.add(arg);
+            }
+        }
+
+        List<Map<String, Object>> resultados = new ArrayList<>();
+        ConfiguracionCarga config = null;
+        for (String tamanio : tamanios.split(",")) {
+            String[] usuariosDias = tamanio.trim().split(":");
+            List<String> conTamanio = new ArrayList<>(argumentos);
+            conTamanio.add("--usuarios=" + usuariosDias[0]);
+            conTamanio.add("--dias=" + usuariosDias[1]);
+            config = ConfiguracionCarga.desdeArgumentos(conTamanio.toArray(String[]::new));
+
+            Map<String, Object> informe = PruebaCarga.medir(config,
+                    "--spring.datasource.url=jdbc:h2:mem:asistencia_barrido_" + config.usuarios() + "_" + config.dias()
+                            + ";MODE=Oracle;DB_CLOSE_ON_EXIT=FALSE",
+                    "--app.archivo.meses-activos=" + (config.dias() / 28 + 2));
+            resultados.add(resumir(config, informe));
+        }
+
+        Map<String, Object> barrido = new LinkedHashMap<>();
+        barrido.put("concurrencia", config.concurrencia());
+        barrido.put("calentamiento", config.calentamiento().toString());
+        barrido.put("duracion", config.duracion().toString());
+        barrido.put("mix", config.mix());
+        barrido.put("hilos", config.hilos());
+        barrido.put("semilla", config.semilla());
+        barrido.put("tamanios", resultados);
+        PruebaCarga.escribirInforme(config.informe(), barrido);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> resumir(ConfiguracionCarga config, Map<String, Object> informe) {
+        Map<String, Object> filas = (Map<String, Object>) informe.get("filas");
+        Map<String, Map<String, Object>> endpoints = (Map<String, Map<String, Object>>) informe.get("endpoints");
+
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        resumen.put("usuarios", config.usuarios());
+        resumen.put("dias", config.dias());
+        resumen.put("filasAsistencia", filas.get("asistencia"));
+        for (String endpoint : List.of("checkin (rafaga)", "checkin", "checkout")) {
+            Map<String, Object> datos = endpoints.get(endpoint);
+            if (datos == null) {
+                continue;
+            }
+            Map<String, Object> latencias = new LinkedHashMap<>();
+            latencias.put("peticiones", datos.get("peticiones"));
+            latencias.put("errores", datos.get("errores"));
+            latencias.put("p50Ms", datos.get("p50Ms"));
+            latencias.put("p99Ms", datos.get("p99Ms"));
+            resumen.put(endpoint, latencias);
+        }
+        return resumen;
+    }
+}
@@ -0,0 +1,66 @@
+package com.indra.asistencia.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parametros de la prueba de carga, leidos de argumentos --clave=valor.
+ * Ejemplo: --usuarios=5000 --dias=730 --concurrencia=200 --duracion=PT2M --hilos=virtuales
+ *          --mix=login:2,checkin:8,estado:50,historial:25,reporte:5,estadisticas:10
+ */
+record ConfiguracionCarga(int usuarios,
+                          int dias,
+                          int concurrencia,
+                          Duration calentamiento,
+                          Duration duracion,
+                          Map<String, Integer> mix,
+                          long semilla,
+                          String hilos,
+                          String informe) {
+
+    static final Set<String> MODOS_HILOS = Set.of("virtuales", "plataforma");
+
+    static final String MIX_POR_DEFECTO = "login:2,checkin:8,estado:50,historial:25,reporte:5,estadisticas:10";
+
+    static ConfiguracionCarga desdeArgumentos(String[] args) {
+        Map<String, String> valores = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int igual = arg.indexOf('=');
+                valores.put(arg.substring(2, igual), arg.substring(igual + 1));
+            }
+        }
+        ConfiguracionCarga config = new ConfiguracionCarga(
+                Integer.parseInt(valores.getOrDefault("usuarios", "5000")),
+                Integer.parseInt(valores.getOrDefault("dias", "730")),
+                Integer.parseInt(valores.getOrDefault("concurrencia", "200")),
+                Duration.parse(valores.getOrDefault("calentamiento", "PT15S")),
+                Duration.parse(valores.getOrDefault("duracion", "PT1M")),
+                parsearMix(valores.getOrDefault("mix", MIX_POR_DEFECTO)),
+                Long.parseLong(valores.getOrDefault("semilla", "42")),
+                valores.getOrDefault("hilos", "plataforma"),
+                valores.getOrDefault("informe", "target/loadtest-report.json"));
+        if (config.concurrencia() > config.usuarios()) {
+            throw new IllegalArgumentException("La concurrencia no puede superar el numero de empleados");
+        }
+        if (!MODOS_HILOS.contains(config.hilos())) {
+            throw new IllegalArgumentException("--hilos debe ser virtuales o plataforma: " + config.hilos());
+        }
+        return config;
+    }
+
+    private static Map<String, Integer> parsearMix(String mix) {
+        Map<String, Integer> pesos = new LinkedHashMap<>();
+        for (String parte : mix.split(",")) {
+            String[] claveValor = parte.trim().split(":");
+            String operacion = claveValor[0].trim();
+            if (!PruebaCarga.OPERACIONES.contains(operacion)) {
+                throw new IllegalArgumentException("Operacion desconocida en --mix: " + operacion);
+            }
+            pesos.put(operacion, Integer.parseInt(claveValor[1].trim()));
+        }
+        return pesos;
+    }
+}
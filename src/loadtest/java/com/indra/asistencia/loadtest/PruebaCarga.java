@@ -0,0 +1,280 @@
+package com.indra.asistencia.loadtest;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.indra.asistencia.Application;
+import com.indra.asistencia.perf.GeneradorDatosPerf;
+
+/**
+ * Prueba de carga reproducible: arranca la aplicacion con el perfil 'perf' (H2 en memoria
+ * y dataset de GeneradorDatosPerf con el volumen y la semilla configurados) y lanza un usuario virtual por empleado concurrente con la mezcla
+ * de operaciones indicada. Escribe percentiles y throughput por endpoint en JSON.
+ *
+ * mvn -Ploadtest test-compile exec:exec [-Dloadtest.args="--usuarios=5000 --duracion=PT2M"]
+ */
+public final class PruebaCarga {
+
+    static final Set<String> OPERACIONES = Set.of("login", "checkin", "estado", "historial", "reporte", "estadisticas");
+
+    private final ConfiguracionCarga config;
+    private final String base;
+    private final HttpClient cliente;
+    private final RegistroLatencias registro = new RegistroLatencias();
+    private final List<String> operaciones = new ArrayList<>();
+    private volatile String tokenAdmin;
+
+    private PruebaCarga(ConfiguracionCarga config, int puerto) {
+        this.config = config;
+        this.base = "http://localhost:" + puerto;
+        this.cliente = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        config.mix().forEach((operacion, peso) -> {
+            for (int i = 0; i < peso; i++) {
+                operaciones.add(operacion);
+            }
+        });
+    }
+
+    static String empleado(int indice) {
+        return "emp" + indice;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionCarga config = ConfiguracionCarga.desdeArgumentos(args);
+        escribirInforme(config.informe(), medir(config));
+    }
+
+    // Arranca la aplicacion, ejecuta la prueba y la cierra; propiedadesExtra se anaden a las de propiedades()
+    static Map<String, Object> medir(ConfiguracionCarga config, String... propiedadesExtra) throws Exception {
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        List<String> argumentos = new ArrayList<>(List.of(propiedades(config)));
+        argumentos.addAll(List.of(propiedadesExtra));
+
+        // Como argumentos de linea de comandos: prevalecen sobre application.properties
+        ConfigurableApplicationContext contexto = new SpringApplicationBuilder(Application.class)
+                .run(argumentos.toArray(String[]::new));
+        try {
+            int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            Map<String, Object> informe = new PruebaCarga(config, puerto).ejecutar();
+
+            JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+            Map<String, Object> filas = new LinkedHashMap<>();
+            filas.put("asistencia", jdbc.queryForObject("SELECT COUNT(*) FROM ASISTENCIA", Long.class));
+            filas.put("asistenciaHistorico", jdbc.queryForObject("SELECT COUNT(*) FROM ASISTENCIA_HISTORICO", Long.class));
+            informe.put("filas", filas);
+            return informe;
+        } finally {
+            contexto.close();
+        }
+    }
+
+    static void escribirInforme(String ruta, Object informe) throws Exception {
+        File destino = new File(ruta);
+        destino.getAbsoluteFile().getParentFile().mkdirs();
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        mapper.writeValue(destino, informe);
+        System.out.println(mapper.writeValueAsString(informe));
+        System.out.println("Informe escrito en " + destino.getAbsolutePath());
+    }
+
+    private static String[] propiedades(ConfiguracionCarga config) {
+        return new String[]{
+                "--spring.profiles.active=perf",
+                "--app.perf.usuarios=" + config.usuarios(),
+                "--app.perf.dias=" + config.dias(),
+                "--app.perf.semilla=" + config.semilla(),
+                "--spring.threads.virtual.enabled=" + config.hilos().equals("virtuales"),
+                // Sin marcaciones de hoy: la rafaga de check-in es la primera del dia
+                "--app.perf.incluir-hoy=false",
+                "--server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                // Los rechazos ya cuentan como errores en el informe
+                "--logging.level.com.indra.asistencia=OFF",
+                "--logging.level.com.indra.asistencia.loadtest=INFO"
+        };
+    }
+
+    private Map<String, Object> ejecutar() throws Exception {
+        tokenAdmin = login(GeneradorDatosPerf.ADMIN);
+
+        try (ExecutorService usuariosVirtuales = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<UsuarioVirtual> usuarios = new ArrayList<>();
+            for (int i = 1; i <= config.concurrencia(); i++) {
+                usuarios.add(new UsuarioVirtual(empleado(i), new Random(config.semilla() + i)));
+            }
+            for (UsuarioVirtual usuario : usuarios) {
+                usuario.token = login(usuario.username);
+            }
+
+            // Calentamiento sin registrar y sin marcaciones: la rafaga de check-in es la primera del dia
+            correr(usuariosVirtuales, usuarios, config.calentamiento(), false);
+
+            registro.activar();
+            long inicio = System.nanoTime();
+            rafagaCheckin(usuariosVirtuales, usuarios);
+            correr(usuariosVirtuales, usuarios, config.duracion(), true);
+            registro.desactivar();
+            double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+
+            Map<String, Object> configuracion = new LinkedHashMap<>();
+            configuracion.put("usuarios", config.usuarios());
+            configuracion.put("dias", config.dias());
+            configuracion.put("concurrencia", config.concurrencia());
+            configuracion.put("calentamiento", config.calentamiento().toString());
+            configuracion.put("duracion", config.duracion().toString());
+            configuracion.put("mix", config.mix());
+            configuracion.put("semilla", config.semilla());
+            configuracion.put("hilos", config.hilos());
+
+            Map<String, Object> informe = new LinkedHashMap<>();
+            informe.put("configuracion", configuracion);
+            informe.put("segundosMedidos", Math.round(segundos * 100.0) / 100.0);
+            informe.put("endpoints", registro.resumen(segundos));
+            return informe;
+        }
+    }
+
+    // Todos los usuarios virtuales marcan la entrada a la vez (pico de la mañana)
+    private void rafagaCheckin(ExecutorService ejecutor, List<UsuarioVirtual> usuarios) throws Exception {
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>();
+        for (UsuarioVirtual usuario : usuarios) {
+            tareas.add(ejecutor.submit(() -> {
+                salida.await();
+                usuario.dentro = enviar("checkin (rafaga)", post("/api/asistencia/checkin", usuario.token)) == 200;
+                return null;
+            }));
+        }
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+    }
+
+    private void correr(ExecutorService ejecutor, List<UsuarioVirtual> usuarios, Duration duracion,
+                        boolean conMarcaciones) throws Exception {
+        long fin = System.nanoTime() + duracion.toNanos();
+        List<Future<?>> tareas = new ArrayList<>();
+        for (UsuarioVirtual usuario : usuarios) {
+            tareas.add(ejecutor.submit(() -> {
+                while (System.nanoTime() < fin) {
+                    String operacion = operaciones.get(usuario.random.nextInt(operaciones.size()));
+                    if (!conMarcaciones && operacion.equals("checkin")) {
+                        continue;
+                    }
+                    operar(usuario, operacion);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+    }
+
+    private void operar(UsuarioVirtual usuario, String operacion) throws Exception {
+        switch (operacion) {
+            case "login" -> {
+                // Un login rechazado (p. ej. pool de BCrypt saturado) cuenta como error; se conserva el token
+                try {
+                    usuario.token = login(usuario.username);
+                } catch (IllegalStateException e) {
+                    // ya registrado
+                }
+            }
+            case "checkin" -> {
+                String ruta = usuario.dentro ? "/api/asistencia/checkout" : "/api/asistencia/checkin";
+                if (enviar(usuario.dentro ? "checkout" : "checkin", post(ruta, usuario.token)) == 200) {
+                    usuario.dentro = !usuario.dentro;
+                }
+            }
+            case "estado" -> enviar("estado", get("/api/asistencia/estado", usuario.token));
+            case "historial" -> enviar("historial", get("/api/asistencia/historial?size=20", usuario.token));
+            case "reporte" -> {
+                LocalDate hoy = LocalDate.now();
+                enviar("reporte", get("/api/asistencia/reportes/fechas?desde=" + hoy.minusDays(7)
+                        + "&hasta=" + hoy, tokenAdmin));
+            }
+            case "estadisticas" -> enviar("estadisticas", get("/api/admin/estadisticas", tokenAdmin));
+            default -> throw new IllegalStateException("Operacion desconocida: " + operacion);
+        }
+    }
+
+    private String login(String username) throws Exception {
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create(base + "/auth/login"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("username=" + username + "&password=" + GeneradorDatosPerf.PASSWORD))
+                .build();
+        long inicio = System.nanoTime();
+        HttpResponse<String> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.ofString());
+        registro.registrar("login", System.nanoTime() - inicio, respuesta.statusCode() == 200);
+        if (respuesta.statusCode() != 200) {
+            throw new IllegalStateException("Login fallido para " + username + ": " + respuesta.body());
+        }
+        return respuesta.body().trim();
+    }
+
+    private int enviar(String endpoint, HttpRequest peticion) {
+        long inicio = System.nanoTime();
+        try {
+            int estado = cliente.send(peticion, HttpResponse.BodyHandlers.discarding()).statusCode();
+            registro.registrar(endpoint, System.nanoTime() - inicio, estado >= 200 && estado < 300);
+            return estado;
+        } catch (Exception e) {
+            registro.registrar(endpoint, System.nanoTime() - inicio, false);
+            return -1;
+        }
+    }
+
+    private HttpRequest get(String ruta, String token) {
+        return HttpRequest.newBuilder(URI.create(base + ruta))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String ruta, String token) {
+        return HttpRequest.newBuilder(URI.create(base + ruta))
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private static final class UsuarioVirtual {
+        private final String username;
+        private final Random random;
+        private volatile String token;
+        private volatile boolean dentro;
+
+        private UsuarioVirtual(String username, Random random) {
+            this.username = username;
+            this.random = random;
+        }
+    }
+}
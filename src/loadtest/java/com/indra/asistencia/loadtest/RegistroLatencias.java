@@ -0,0 +1,77 @@
+package com.indra.asistencia.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias por endpoint. Las muestras se guardan completas (sin histograma) para
+ * calcular percentiles exactos al final de la prueba.
+ */
+class RegistroLatencias {
+
+    private static final double[] PERCENTILES = {50, 90, 95, 99, 99.9};
+
+    private final Map<String, ConcurrentLinkedQueue<Long>> muestras = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errores = new ConcurrentHashMap<>();
+    private volatile boolean activo;
+
+    void activar() {
+        muestras.clear();
+        errores.clear();
+        activo = true;
+    }
+
+    void desactivar() {
+        activo = false;
+    }
+
+    void registrar(String endpoint, long nanos, boolean exito) {
+        if (!activo) {
+            return;
+        }
+        muestras.computeIfAbsent(endpoint, e -> new ConcurrentLinkedQueue<>()).add(nanos);
+        if (!exito) {
+            errores.computeIfAbsent(endpoint, e -> new LongAdder()).increment();
+        }
+    }
+
+    Map<String, Object> resumen(double segundos) {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        muestras.keySet().stream().sorted().forEach(endpoint -> {
+            long[] ordenadas = muestras.get(endpoint).stream().mapToLong(Long::longValue).sorted().toArray();
+            LongAdder fallos = errores.get(endpoint);
+
+            Map<String, Object> datos = new LinkedHashMap<>();
+            datos.put("peticiones", ordenadas.length);
+            datos.put("errores", fallos == null ? 0 : fallos.sum());
+            datos.put("throughputPorSegundo", redondear(ordenadas.length / segundos));
+            datos.put("mediaMs", redondear(Arrays.stream(ordenadas).average().orElse(0) / 1_000_000.0));
+            for (double p : PERCENTILES) {
+                datos.put("p" + formatearPercentil(p) + "Ms", redondear(percentil(ordenadas, p) / 1_000_000.0));
+            }
+            datos.put("maxMs", redondear(ordenadas.length == 0 ? 0 : ordenadas[ordenadas.length - 1] / 1_000_000.0));
+            resumen.put(endpoint, datos);
+        });
+        return resumen;
+    }
+
+    private static long percentil(long[] ordenadas, double p) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.ceil(p / 100.0 * ordenadas.length) - 1;
+        return ordenadas[Math.clamp(indice, 0, ordenadas.length - 1)];
+    }
+
+    private static String formatearPercentil(double p) {
+        return p == Math.rint(p) ? String.valueOf((int) p) : String.valueOf(p).replace(".", "");
+    }
+
+    private static double redondear(double valor) {
+        return Math.round(valor * 100.0) / 100.0;
+    }
+}
@@ -0,0 +1,12 @@
+package com.indra.asistencia.Jwt;
+
+import java.time.Instant;
+import java.util.List;
+
+public record JwtPrincipal(String username, List<String> roles, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return expiresAt != null && !expiresAt.isAfter(now);
+    }
+
+}
@@ -1,7 +1,10 @@
 package com.indra.asistencia.Jwt;
 
-import java.util.Date;
+import java.time.Clock;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.stereotype.Component;
 
@@ -17,47 +20,101 @@ public class JwtUtil {
 
     private final String SECRET = "mysecretkey001";
 
+    private static final long EXPIRATION_MS = 60 * 60 * 1000;
+    private static final int MAX_VERIFIED_TOKENS = 10_000;
+
+    // Algorithm y JWTVerifier son inmutables y thread-safe: se construyen una sola vez
+    private final Algorithm algorithm = Algorithm.HMAC256(SECRET);
+    private final Clock clock;
+    private final JWTVerifier verifier;
+
+    // Tokens ya verificados; cada entrada deja de ser valida al expirar su token
+    private final Map<String, JwtPrincipal> verifiedTokens = new ConcurrentHashMap<>();
+
+    public JwtUtil() {
+        this(Clock.systemUTC());
+    }
+
+    // Las pruebas avanzan el reloj en lugar de esperar a que expiren los tokens
+    JwtUtil(Clock clock) {
+        this.clock = clock;
+        this.verifier = ((JWTVerifier.BaseVerification) JWT.require(algorithm)).build(clock);
+    }
+
     public String generateToken(String username) {
 
+        Instant now = clock.instant();
         return JWT.create()
             .withSubject(username)
-            .withIssuedAt(new Date())
-            .withExpiresAt(new Date(System.currentTimeMillis() + 60 * 60 * 1000)) 
-            .sign(Algorithm.HMAC256(SECRET));
+            .withIssuedAt(now)
+            .withExpiresAt(now.plusMillis(EXPIRATION_MS)) 
+            .sign(algorithm);
     }
 
     public String generateToken(String username, List<String> roles) {
         
+        Instant now = clock.instant();
         return JWT.create()
             .withSubject(username)
             .withClaim("roles",roles)
-            .withIssuedAt(new Date())
-            .withExpiresAt(new Date(System.currentTimeMillis() + 60 * 60 * 1000)) 
-            .sign(Algorithm.HMAC256(SECRET));
+            .withIssuedAt(now)
+            .withExpiresAt(now.plusMillis(EXPIRATION_MS)) 
+            .sign(algorithm);
+    }
+
+    /**
+     * Verifica la firma y la expiracion una sola vez y devuelve los datos del token.
+     * Lanza JWTVerificationException si el token no es valido.
+     */
+    public JwtPrincipal verify(String token) {
+        JwtPrincipal cached = verifiedTokens.get(token);
+        if (cached != null) {
+            if (!cached.isExpired(clock.instant())) {
+                return cached;
+            }
+            verifiedTokens.remove(token, cached);
+        }
+
+        DecodedJWT jwt = verifier.verify(token);
+        List<String> roles = jwt.getClaim("roles").asList(String.class);
+        JwtPrincipal principal = new JwtPrincipal(
+            jwt.getSubject(),
+            roles != null ? List.copyOf(roles) : List.of(),
+            jwt.getExpiresAtAsInstant());
+
+        if (principal.expiresAt() != null) {
+            cache(token, principal);
+        }
+        return principal;
     }
 
     public boolean validateToken(String token, String username) {
 
-        DecodedJWT jwt = getDecodedJWT(token);
-        return  jwt.getSubject().equals(username) && jwt.getExpiresAt().after(new Date());
+        JwtPrincipal principal = verify(token);
+        return  principal.username().equals(username) && !principal.isExpired(clock.instant());
 
     }
     public String getUsername(String token) {
-        return getDecodedJWT(token).getSubject();
+        return verify(token).username();
     }    
 
-    private DecodedJWT getDecodedJWT(String token) {
-
-        
-        JWTVerifier verifier = JWT.require(Algorithm.HMAC256(SECRET)).build();
-        return verifier.verify(token);
-            
+    public List<String> getRoles(String token) {
+        return verify(token).roles();
+    }
 
-    }    
+    public int getVerifiedTokenCount() {
+        return verifiedTokens.size();
+    }
 
-    public List<String> getRoles(String token) {
-        DecodedJWT jwt = getDecodedJWT(token);
-        return jwt.getClaim("roles").asList(String.class);
+    private void cache(String token, JwtPrincipal principal) {
+        if (verifiedTokens.size() >= MAX_VERIFIED_TOKENS) {
+            Instant now = clock.instant();
+            verifiedTokens.values().removeIf(p -> p.isExpired(now));
+            if (verifiedTokens.size() >= MAX_VERIFIED_TOKENS) {
+                verifiedTokens.clear();
+            }
+        }
+        verifiedTokens.put(token, principal);
     }
 
 }
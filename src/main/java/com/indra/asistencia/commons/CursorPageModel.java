@@ -0,0 +1,19 @@
+package com.indra.asistencia.commons;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageModel<T> {
+
+    private List<T> content;
+    private Integer rowsPerPage;
+    private String nextCursor;
+    private boolean hasNext;
+
+}
@@ -13,6 +13,7 @@ public class PaginationModel {
 
     private Integer pageNumber;
     private Integer rowsPerPage;
+    private String cursor;
 
     private List<FilterModel> filters;
     private List<SortModel> sorts;    
@@ -0,0 +1,154 @@
+package com.indra.asistencia.config;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * BCrypt con coste calibrado al arrancar y ejecutado en un pool acotado, para
+ * que los picos de login no consuman los hilos de peticion que atienden los
+ * check-in. Los hashes con un coste inferior se regeneran en el siguiente login;
+ * nunca se rebajan, para que instancias calibradas distinto no se alternen el hash.
+ *
+ * El hilo de peticion espera el hash (bloqueante). Lo que acota el consumo de hilos
+ * de Tomcat es la cola: con hilos + cola muy por debajo de server.tomcat.threads.max,
+ * el exceso de logins se rechaza al encolar (503) sin ocupar un hilo mas.
+ */
+public class CalibratedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(CalibratedPasswordEncoder.class);
+
+    private static final int MUESTRAS_CALIBRACION = 5;
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final Duration timeout;
+
+    public CalibratedPasswordEncoder(int strength, int threads, int queueCapacity, Duration timeout) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.timeout = timeout;
+
+        AtomicInteger contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Elige el mayor coste cuyo tiempo de hash estimado no supera el objetivo.
+     * Toma la mediana de varias mediciones con el coste minimo y extrapola (cada punto de
+     * coste duplica el tiempo); el coste minimo configurado es siempre el suelo.
+     */
+    public static int calibrateStrength(Duration target, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder muestra = new BCryptPasswordEncoder(minStrength);
+        muestra.encode("calibracion");
+
+        long[] tiempos = new long[MUESTRAS_CALIBRACION];
+        for (int i = 0; i < tiempos.length; i++) {
+            long inicio = System.nanoTime();
+            muestra.encode("calibracion");
+            tiempos[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(tiempos);
+        long nanos = Math.max(tiempos[tiempos.length / 2], 1);
+
+        int strength = minStrength;
+        while (strength < maxStrength && nanos * 2 <= target.toNanos()) {
+            nanos *= 2;
+            strength++;
+        }
+
+        logger.info("BCrypt calibrado - coste: {}, tiempo estimado: {} ms, objetivo: {} ms",
+                strength, TimeUnit.NANOSECONDS.toMillis(nanos), target.toMillis());
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        return matcher.matches() && Integer.parseInt(matcher.group(2)) < strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public long getCompletedCount() {
+        return executor.getCompletedTaskCount();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private <T> T execute(Callable<T> tarea) {
+        Future<T> futuro;
+        try {
+            futuro = executor.submit(tarea);
+        } catch (RejectedExecutionException e) {
+            throw new AuthenticationServiceException("Servicio de autenticación saturado, intente nuevamente");
+        }
+
+        try {
+            return futuro.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            futuro.cancel(true);
+            throw new AuthenticationServiceException("Tiempo de espera agotado al verificar la contraseña");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("Verificación de contraseña interrumpida");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new AuthenticationServiceException("Error al verificar la contraseña", e.getCause());
+        }
+    }
+}
@@ -5,8 +5,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -17,6 +17,10 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import com.indra.asistencia.Jwt.JwtPrincipal;
 import com.indra.asistencia.Jwt.JwtUtil;
 import com.indra.asistencia.exception.ExceptionDto;
 
@@ -29,9 +33,13 @@ import jakarta.servlet.http.HttpServletResponse;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private JwtUtil jwtUtil;
+    private Timer tokenValido;
+    private Timer tokenInvalido;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, MeterRegistry meterRegistry) {
         this.jwtUtil = jwtUtil;
+        this.tokenValido = meterRegistry.timer("asistencia.jwt.verificacion", "resultado", "valido");
+        this.tokenInvalido = meterRegistry.timer("asistencia.jwt.verificacion", "resultado", "invalido");
     }
 
     @Override
@@ -40,20 +48,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                     FilterChain filterChain) throws IOException, ServletException  {
         try {
             String authHeader = request.getHeader("Authorization");
-            String username = null;
-            String jwt = null;
-            List<String> roles = new ArrayList<>();
 
             if(authHeader != null && authHeader.startsWith("Bearer ")) {
-                jwt = authHeader.substring(7);
-                username = jwtUtil.getUsername(jwt);
-                roles = jwtUtil.getRoles(jwt); 
-            }
+                long inicio = System.nanoTime();
+                JwtPrincipal principal;
+                try {
+                    principal = jwtUtil.verify(authHeader.substring(7));
+                } catch (JWTVerificationException ex) {
+                    tokenInvalido.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                    throw ex;
+                }
+                tokenValido.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
 
-            if(username != null  && SecurityContextHolder.getContext().getAuthentication() == null) {
-                if(jwtUtil.validateToken(jwt, username)) {
+                if(principal.username() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
 
-                    List<SimpleGrantedAuthority> authorities = roles.stream()
+                    List<SimpleGrantedAuthority> authorities = principal.roles().stream()
                         .map(role -> {
                             if(role.contains("ROLE_")){
                                 role = role.replace("ROLE_","");
@@ -64,7 +73,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         .toList();
 
                     UsernamePasswordAuthenticationToken authentication = 
-                        new UsernamePasswordAuthenticationToken(username, null, authorities);
+                        new UsernamePasswordAuthenticationToken(principal.username(), null, authorities);
 
                     WebAuthenticationDetails details = new WebAuthenticationDetailsSource().buildDetails(request);
                     authentication.setDetails(details);
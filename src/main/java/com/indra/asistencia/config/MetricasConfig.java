@@ -0,0 +1,81 @@
+package com.indra.asistencia.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.indra.asistencia.Jwt.JwtUtil;
+import com.indra.asistencia.service.IUserService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Gauges de los componentes propios (caches, pool de BCrypt, limitador de BD).
+ * Hikari, Hibernate, JVM y peticiones HTTP los registra Spring Boot.
+ */
+@Configuration
+public class MetricasConfig {
+
+    @Bean
+    public MeterRegistryCustomizer<MeterRegistry> metricasComunes() {
+        return registry -> registry.config().commonTags("application", "asistencia");
+    }
+
+    @Bean
+    public MeterBinder cacheUsuariosMetricas(IUserService userService) {
+        return registry -> {
+            Gauge.builder("asistencia.cache.usuarios.tamanio", userService,
+                    s -> ((Number) s.getEstadisticasCache().get("tamanio")).doubleValue())
+                    .register(registry);
+            FunctionCounter.builder("asistencia.cache.usuarios.accesos", userService,
+                    s -> ((Number) s.getEstadisticasCache().get("aciertos")).doubleValue())
+                    .tag("resultado", "acierto")
+                    .register(registry);
+            FunctionCounter.builder("asistencia.cache.usuarios.accesos", userService,
+                    s -> ((Number) s.getEstadisticasCache().get("fallos")).doubleValue())
+                    .tag("resultado", "fallo")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder jwtMetricas(JwtUtil jwtUtil) {
+        return registry -> Gauge.builder("asistencia.jwt.cache.tamanio", jwtUtil, JwtUtil::getVerifiedTokenCount)
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder bcryptMetricas(PasswordEncoder passwordEncoder) {
+        return registry -> {
+            if (passwordEncoder instanceof CalibratedPasswordEncoder encoder) {
+                Gauge.builder("asistencia.bcrypt.cola", encoder, CalibratedPasswordEncoder::getQueueDepth)
+                        .register(registry);
+                Gauge.builder("asistencia.bcrypt.activos", encoder, CalibratedPasswordEncoder::getActiveCount)
+                        .register(registry);
+                Gauge.builder("asistencia.bcrypt.coste", encoder, CalibratedPasswordEncoder::getStrength)
+                        .register(registry);
+                FunctionCounter.builder("asistencia.bcrypt.completados", encoder,
+                        CalibratedPasswordEncoder::getCompletedCount)
+                        .register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder limitadorBdMetricas(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConcurrencyLimitedDataSource limitado) {
+                Gauge.builder("asistencia.datasource.en_espera", limitado, ConcurrencyLimitedDataSource::getEnEspera)
+                        .register(registry);
+                Gauge.builder("asistencia.datasource.disponibles", limitado, ConcurrencyLimitedDataSource::getDisponibles)
+                        .register(registry);
+            }
+        };
+    }
+}
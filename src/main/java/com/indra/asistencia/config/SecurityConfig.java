@@ -1,12 +1,18 @@
 package com.indra.asistencia.config;
 
+import java.time.Duration;
+
+import jakarta.servlet.DispatcherType;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -16,6 +22,8 @@ import org.springframework.web.cors.CorsConfigurationSource;
 @Configuration
 public class SecurityConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
+
     private JwtAuthenticationFilter jwtAuthenticationFilter;
     private CorsConfigurationSource corsConfigurationSource;
 
@@ -30,12 +38,16 @@ public class SecurityConfig {
         http
         .csrf( csrf -> csrf.disable() )
             .authorizeHttpRequests( auth -> auth 
+                // El despacho ASYNC de las respuestas en streaming ya se autorizo en la peticion original
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/**").authenticated() 
+                // Solo health queda abierto para las sondas; metricas y prometheus exponen nombres de usuario y volumenes
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .requestMatchers(
                     "/v3/api-docs/**",
                     "/swagger-ui.html",
                     "/webjars/**",
-                    "/actuator/**",
                     "/swagger-ui/**",
                     "/auth/**").permitAll()
                 .anyRequest().permitAll()
@@ -51,7 +63,19 @@ public class SecurityConfig {
     }
     
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.bcrypt.target-latency:PT0.25S}") Duration targetLatency,
+            @Value("${security.bcrypt.min-strength:10}") int minStrength,
+            @Value("${security.bcrypt.max-strength:14}") int maxStrength,
+            @Value("${security.bcrypt.threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads,
+            @Value("${security.bcrypt.queue-capacity:32}") int queueCapacity,
+            @Value("${security.bcrypt.timeout:PT5S}") Duration timeout,
+            @Value("${server.tomcat.threads.max:200}") int tomcatThreads) {
+        if (threads + queueCapacity >= tomcatThreads / 2) {
+            logger.warn("BCrypt - hilos ({}) + cola ({}) cerca de server.tomcat.threads.max ({}): "
+                    + "un pico de logins puede agotar los hilos de peticion antes de rechazar", threads, queueCapacity, tomcatThreads);
+        }
+        int strength = CalibratedPasswordEncoder.calibrateStrength(targetLatency, minStrength, maxStrength);
+        return new CalibratedPasswordEncoder(strength, threads, queueCapacity, timeout);
     }
 }
\ No newline at end of file
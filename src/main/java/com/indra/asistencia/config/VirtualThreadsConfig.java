@@ -0,0 +1,43 @@
+package com.indra.asistencia.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Modo opcional de hilos virtuales (spring.threads.virtual.enabled=true): Tomcat,
+ * @Async y las respuestas en streaming pasan a hilos virtuales y el acceso a BD
+ * queda acotado al tamanio del pool de conexiones.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadsConfig.class);
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(Environment env) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    int maxConcurrency = env.getProperty("app.datasource.max-concurrency", Integer.class,
+                            env.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+                    Duration espera = env.getProperty("app.datasource.acquire-timeout", Duration.class,
+                            Duration.ofSeconds(30));
+                    logger.info("Hilos virtuales activos - acceso a BD limitado a {} conexiones concurrentes", maxConcurrency);
+                    return new ConcurrencyLimitedDataSource(dataSource, maxConcurrency, espera);
+                }
+                return bean;
+            }
+        };
+    }
+}
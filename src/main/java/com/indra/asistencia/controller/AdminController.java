@@ -2,18 +2,19 @@ package com.indra.asistencia.controller;
 
 import com.indra.asistencia.dto.CreateUserRequestDto;
 import com.indra.asistencia.dto.JustificacionAdminResponseDto;
+import com.indra.asistencia.dto.PresenciaDto;
 import com.indra.asistencia.dto.UserResponseDto;
-import com.indra.asistencia.mappers.JustificacionMapper;
-import com.indra.asistencia.models.Justificacion;
-import com.indra.asistencia.repository.JustificacionRepository;
+import com.indra.asistencia.service.IEstadisticaService;
+import com.indra.asistencia.service.IJustificacionService;
+import com.indra.asistencia.service.IPresenciaService;
 import com.indra.asistencia.service.IUserAdminService;
+import com.indra.asistencia.service.IUserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -24,8 +25,10 @@ import java.util.Map;
 public class AdminController {
 
     private final IUserAdminService userAdminService;
-    private final JustificacionRepository justificacionRepository;
-    private final JustificacionMapper justificacionMapper;
+    private final IJustificacionService justificacionService;
+    private final IPresenciaService presenciaService;
+    private final IEstadisticaService estadisticaService;
+    private final IUserService userService;
 
 
     @GetMapping("/usuarios")
@@ -68,32 +71,21 @@ public class AdminController {
 
     @GetMapping("/estadisticas")
     public ResponseEntity<Map<String, Object>> getEstadisticas() {
-        Map<String, Object> estadisticas = new HashMap<>();
+        return ResponseEntity.ok(estadisticaService.getEstadisticas());
+    }
 
-        List<UserResponseDto> usuarios = userAdminService.listarUsuarios();
-        estadisticas.put("totalEmpleados", usuarios.size());
-        
-        estadisticas.put("presentesHoy", 0);
-        
-        List<Justificacion> pendientes = justificacionRepository.findByEstado("PENDIENTE");
-        estadisticas.put("justificacionesPendientes", pendientes.size());
-        
-        estadisticas.put("porcentajePuntualidad", 85);
-        
-        estadisticas.put("dias", List.of("Lun", "Mar", "Mié", "Jue", "Vie", "Sáb", "Dom"));
-        estadisticas.put("asistenciasPorDia", List.of(12, 15, 14, 18, 16, 8, 5));
-        
-        estadisticas.put("puntuales", 45);
-        estadisticas.put("tardanzas", 8);
-        estadisticas.put("ausencias", 3);
-        
-        return ResponseEntity.ok(estadisticas);
+    @GetMapping("/cache/usuarios")
+    public ResponseEntity<Map<String, Object>> getEstadisticasCacheUsuarios() {
+        return ResponseEntity.ok(userService.getEstadisticasCache());
+    }
+
+    @GetMapping("/presentes")
+    public ResponseEntity<List<PresenciaDto>> getPresentes() {
+        return ResponseEntity.ok(presenciaService.getPresentes());
     }
 
     @GetMapping("/justificaciones/pendientes")
     public ResponseEntity<List<JustificacionAdminResponseDto>> getJustificacionesPendientes() {
-        List<Justificacion> pendientes = justificacionRepository.findByEstado("PENDIENTE");
-        List<JustificacionAdminResponseDto> dtos = justificacionMapper.toAdminDtoList(pendientes);
-        return ResponseEntity.ok(dtos);
+        return ResponseEntity.ok(justificacionService.getJustificacionesPendientes());
     }
 }
\ No newline at end of file
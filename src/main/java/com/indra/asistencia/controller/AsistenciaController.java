@@ -2,26 +2,34 @@ package com.indra.asistencia.controller;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.indra.asistencia.commons.CursorPageModel;
+import com.indra.asistencia.commons.PaginationModel;
 import com.indra.asistencia.dto.*;
-import com.indra.asistencia.exception.ValidatedRequestException;
-import com.indra.asistencia.models.Asistencia;
-import com.indra.asistencia.models.User;
-import com.indra.asistencia.repository.AsistenciaRepository;
-import com.indra.asistencia.repository.IUserRepository;
+import com.indra.asistencia.service.IAsistenciaDiariaService;
 import com.indra.asistencia.service.IAsistenciaService;
+import com.indra.asistencia.service.IPresenciaService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/asistencia")
@@ -30,8 +38,9 @@ public class AsistenciaController {
 
     private static final Logger logger = LoggerFactory.getLogger(AsistenciaController.class);
     private final IAsistenciaService service;
-    private final IUserRepository userRepository;
-    private final AsistenciaRepository asistenciaRepository;
+    private final IPresenciaService presenciaService;
+    private final IAsistenciaDiariaService asistenciaDiariaService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/checkin")
     public ResponseEntity<String> checkin(Authentication auth) {
@@ -43,43 +52,42 @@ public class AsistenciaController {
         return ResponseEntity.ok(service.registrarAsistencia(auth.getName(), "CHECKOUT"));
     }
 
+    @PreAuthorize("hasAnyRole('ADMIN', 'KIOSCO')")
+    @PostMapping("/lote")
+    public ResponseEntity<List<EventoAsistenciaResultadoDto>> registrarLote(
+            @Valid @RequestBody LoteAsistenciaRequestDto dto) {
+        return ResponseEntity.ok(service.registrarLote(dto.getEventos()));
+    }
+
     @GetMapping("/historial")
-    public ResponseEntity<List<AsistenciaResponseDto>> historial(Authentication auth) {
-        return ResponseEntity.ok(service.getHistorial(auth.getName()));
+    public ResponseEntity<CursorPageModel<AsistenciaResponseDto>> historial(
+            Authentication auth,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        PaginationModel paginationModel = new PaginationModel();
+        paginationModel.setCursor(cursor);
+        paginationModel.setRowsPerPage(size);
+        return ResponseEntity.ok(service.getHistorial(auth.getName(), paginationModel));
     }
     
     @GetMapping("/estado")
     public ResponseEntity<Map<String, Object>> getEstadoActual(Authentication auth) {
         Map<String, Object> estado = new HashMap<>();
-        
-        try {
-            User usuario = userRepository.getByUserName(auth.getName())
-                    .orElseThrow(() -> new RuntimeException("Usuario no encontrado"));
-            
-            LocalDate hoy = LocalDate.now();
-            Asistencia ultima = asistenciaRepository
-                    .findFirstByUsuarioAndFechaRegistroOrderByEntradaDesc(usuario, hoy)
-                    .orElse(null);
-            
-            if (ultima == null) {
-                estado.put("enOficina", false);
-                estado.put("mensaje", "No has registrado check-in hoy");
-                estado.put("ultimaEntrada", null);
-                estado.put("ultimaSalida", null);
-            } else {
-                boolean enOficina = (ultima.getSalida() == null);
-                estado.put("enOficina", enOficina);
-                estado.put("mensaje", enOficina ? "Estás en la oficina" : "Ya hiciste check-out hoy");
-                estado.put("ultimaEntrada", ultima.getEntrada());
-                estado.put("ultimaSalida", ultima.getSalida());
-            }
-        } catch (Exception e) {
+        Optional<PresenciaDto> presencia = presenciaService.getPresenciaHoy(auth.getName());
+
+        if (presencia.isEmpty()) {
             estado.put("enOficina", false);
-            estado.put("mensaje", "Error al obtener estado");
+            estado.put("mensaje", "No has registrado check-in hoy");
             estado.put("ultimaEntrada", null);
             estado.put("ultimaSalida", null);
+        } else {
+            boolean enOficina = presencia.get().isEnOficina();
+            estado.put("enOficina", enOficina);
+            estado.put("mensaje", enOficina ? "Estás en la oficina" : "Ya hiciste check-out hoy");
+            estado.put("ultimaEntrada", presencia.get().getEntrada());
+            estado.put("ultimaSalida", presencia.get().getSalida());
         }
-        
+
         return ResponseEntity.ok(estado);
     }
 
@@ -119,23 +127,63 @@ public class AsistenciaController {
         return ResponseEntity.ok(service.reportePorRangoFechas(desde, hasta));
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/reportes/puntualidad")
+    public ResponseEntity<List<PuntualidadView>> reportePuntualidad(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(required = false) String username) {
+        return ResponseEntity.ok(asistenciaDiariaService.reportePuntualidad(desde, hasta, username));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(value = "/reportes/fechas/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> reportePorFechasStream(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return ndjson(escribir -> service.exportarReportePorRangoFechas(desde, hasta, escribir::accept));
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(value = "/reportes/resumen/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> reporteResumenStream(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta) {
+        return ndjson(escribir -> service.exportarResumenPorRangoFechas(desde, hasta, escribir::accept));
+    }
+
+    // Una fila JSON por linea a medida que el servicio las lee
+    private ResponseEntity<StreamingResponseBody> ndjson(Consumer<Consumer<Object>> exportar) {
+        StreamingResponseBody body = salida -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(salida)) {
+                generator.setRootValueSeparator(new SerializedString("\n"));
+                exportar.accept(fila -> {
+                    try {
+                        generator.writeObject(fila);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeRaw('\n');
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @GetMapping("/estado-actual")
     public ResponseEntity<Map<String, Object>> estadoActual(Authentication auth) {
-        User usuario = userRepository.getByUserName(auth.getName())
-                .orElseThrow(() -> new ValidatedRequestException("Usuario no encontrado"));
-        
-        LocalDate hoy = LocalDate.now();
-        Optional<Asistencia> asistenciaHoy = asistenciaRepository
-                .findFirstByUsuarioAndFechaRegistroOrderByEntradaDesc(usuario, hoy);
+        Optional<PresenciaDto> presenciaHoy = presenciaService.getPresenciaHoy(auth.getName());
         
         Map<String, Object> estado = new HashMap<>();
         
-        if (asistenciaHoy.isPresent()) {
-            Asistencia asistencia = asistenciaHoy.get();
-            estado.put("enOficina", asistencia.getSalida() == null);
-            estado.put("ultimaEntrada", asistencia.getEntrada());
-            estado.put("ultimaSalida", asistencia.getSalida());
-            estado.put("fechaRegistro", asistencia.getFechaRegistro());
+        if (presenciaHoy.isPresent()) {
+            PresenciaDto presencia = presenciaHoy.get();
+            estado.put("enOficina", presencia.isEnOficina());
+            estado.put("ultimaEntrada", presencia.getEntrada());
+            estado.put("ultimaSalida", presencia.getSalida());
+            estado.put("fechaRegistro", presencia.getFechaRegistro());
         } else {
             estado.put("enOficina", false);
             estado.put("ultimaEntrada", null);
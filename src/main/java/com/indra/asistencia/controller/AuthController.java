@@ -3,6 +3,9 @@ package com.indra.asistencia.controller;
 import org.springframework.security.core.Authentication;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -10,8 +13,12 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.indra.asistencia.Jwt.JwtUtil;
+import com.indra.asistencia.exception.ServiceUnavailableException;
 import com.indra.asistencia.exception.ValidatedRequestException;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -27,15 +34,18 @@ public class AuthController {
     private AuthenticationManager authenticationManager;
 
     private JwtUtil jwtUtil;
+    private MeterRegistry meterRegistry;
 
-    public AuthController(JwtUtil jwtUtil) {
+    public AuthController(JwtUtil jwtUtil, MeterRegistry meterRegistry) {
         this.jwtUtil = jwtUtil;
+        this.meterRegistry = meterRegistry;
     }
 
     @PostMapping("/login")
     public String login(@RequestParam String username, @RequestParam String password) {
         logger.info("=== INICIO LOGIN ===");
         logger.info("Username recibido: {}", username);
+        Timer.Sample sample = Timer.start(meterRegistry);
         
         try {
             Authentication auth = this.authenticationManager.authenticate(
@@ -55,13 +65,30 @@ public class AuthController {
             logger.info("✅ Token generado (primeros 30 caracteres): {}", 
                        token.substring(0, Math.min(30, token.length())));
             logger.info("=== FIN LOGIN EXITOSO ===");
+            sample.stop(meterRegistry.timer("asistencia.login", "resultado", "ok"));
             
             return token;
             
         } catch (Exception e) {
             logger.error("❌ Error en login para usuario: {}", username);
             logger.error("Detalle del error:", e);
+            sample.stop(meterRegistry.timer("asistencia.login", "resultado", resultadoLogin(e)));
+            // Pool de BCrypt lleno: 503 inmediato para que el cliente reintente, no un falso "credenciales"
+            if (e instanceof AuthenticationServiceException) {
+                throw new ServiceUnavailableException("Servicio de autenticación saturado, intente nuevamente");
+            }
             throw new ValidatedRequestException("Credenciales inválidas");
         }
     }
+
+    // AuthenticationServiceException: pool de BCrypt saturado o error interno, no credenciales
+    private static String resultadoLogin(Exception e) {
+        if (e instanceof DisabledException) {
+            return "deshabilitado";
+        }
+        if (e instanceof AuthenticationException && !(e instanceof AuthenticationServiceException)) {
+            return "credenciales_invalidas";
+        }
+        return "error";
+    }
 }
\ No newline at end of file
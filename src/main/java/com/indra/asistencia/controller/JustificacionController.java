@@ -2,7 +2,6 @@ package com.indra.asistencia.controller;
 
 import com.indra.asistencia.dto.JustificacionRequestDto;
 import com.indra.asistencia.dto.JustificacionResponseDto;
-import com.indra.asistencia.models.Justificacion;
 import com.indra.asistencia.service.IJustificacionService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -43,10 +42,10 @@ public class JustificacionController {
     }
 
     @GetMapping("/mis-justificaciones")
-    public ResponseEntity<List<Justificacion>> getMisJustificaciones(Authentication auth) {
+    public ResponseEntity<List<JustificacionResponseDto>> getMisJustificaciones(Authentication auth) {
         logger.info("GET /api/asistencia/justificacion/mis-justificaciones - Usuario: {}", auth.getName());
         
-        List<Justificacion> justificaciones = justificacionService.getMisJustificaciones(auth.getName());
+        List<JustificacionResponseDto> justificaciones = justificacionService.getMisJustificaciones(auth.getName());
         return ResponseEntity.ok(justificaciones);
     }
 }
\ No newline at end of file
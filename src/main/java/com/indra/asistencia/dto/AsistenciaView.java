@@ -0,0 +1,22 @@
+package com.indra.asistencia.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Proyeccion de solo lectura de ASISTENCIA para historial, reportes y presencia.
+ * Las consultas del propio usuario no hacen JOIN con users: username llega a null.
+ */
+public record AsistenciaView(Long id,
+                             Long usuarioId,
+                             String username,
+                             LocalDateTime entrada,
+                             LocalDateTime salida,
+                             String estado,
+                             LocalDate fechaRegistro) {
+
+    public AsistenciaView(Long id, Long usuarioId, LocalDateTime entrada, LocalDateTime salida,
+                          String estado, LocalDate fechaRegistro) {
+        this(id, usuarioId, null, entrada, salida, estado, fechaRegistro);
+    }
+}
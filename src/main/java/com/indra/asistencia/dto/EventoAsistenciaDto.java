@@ -0,0 +1,18 @@
+package com.indra.asistencia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoAsistenciaDto {
+    private String username;
+    private String accion;
+    private LocalDateTime timestamp;
+}
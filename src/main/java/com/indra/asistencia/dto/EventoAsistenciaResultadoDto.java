@@ -0,0 +1,22 @@
+package com.indra.asistencia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoAsistenciaResultadoDto {
+    private int indice;
+    private String username;
+    private String accion;
+    private LocalDateTime timestamp;
+    private boolean exito;
+    private String mensaje;
+    private Long asistenciaId;
+}
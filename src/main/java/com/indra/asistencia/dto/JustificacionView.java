@@ -0,0 +1,23 @@
+package com.indra.asistencia.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Proyeccion de solo lectura de JUSTIFICACION. Las consultas del propio usuario
+ * no hacen JOIN con users: username y nombreCompleto llegan a null.
+ */
+public record JustificacionView(Long id,
+                                String username,
+                                String nombreCompleto,
+                                LocalDate fecha,
+                                String tipo,
+                                String motivo,
+                                String estado,
+                                LocalDateTime fechaSolicitud) {
+
+    public JustificacionView(Long id, LocalDate fecha, String tipo, String motivo,
+                             String estado, LocalDateTime fechaSolicitud) {
+        this(id, null, null, fecha, tipo, motivo, estado, fechaSolicitud);
+    }
+}
@@ -0,0 +1,21 @@
+package com.indra.asistencia.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoteAsistenciaRequestDto {
+
+    @NotEmpty(message = "El lote no contiene eventos")
+    @Size(max = 1000, message = "El lote admite como máximo 1000 eventos")
+    private List<EventoAsistenciaDto> eventos;
+}
@@ -0,0 +1,22 @@
+package com.indra.asistencia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenciaDto {
+    private Long usuarioId;
+    private String username;
+    private LocalDate fechaRegistro;
+    private LocalDateTime entrada;
+    private LocalDateTime salida;
+    private boolean enOficina;
+}
@@ -0,0 +1,18 @@
+package com.indra.asistencia.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Fila del reporte de puntualidad, leida de ASISTENCIA_DIARIA.
+ * puntualidad: PUNTUAL, TARDANZA o FALTA (dia con solo una justificacion).
+ */
+public record PuntualidadView(String username,
+                              LocalDate fecha,
+                              LocalDateTime primeraEntrada,
+                              LocalDateTime ultimaSalida,
+                              int minutosTrabajados,
+                              int sesiones,
+                              String puntualidad,
+                              String estadoJustificacion) {
+}
@@ -0,0 +1,10 @@
+package com.indra.asistencia.dto;
+
+/**
+ * Fila del reporte general por rango (sp_reporte_asistencia_rango): un resumen por usuario.
+ */
+public record ResumenAsistenciaView(String username,
+                                    long totalDias,
+                                    long diasAsistidos,
+                                    long justificacionesAprobadas) {
+}
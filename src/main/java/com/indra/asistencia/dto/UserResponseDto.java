@@ -34,4 +34,17 @@ public class UserResponseDto {
     private LocalDateTime ultimoAcceso;
     
     private int totalAsistencias = 0;
+
+    // Usado por las proyecciones JPQL del listado de usuarios
+    public UserResponseDto(Long id, String username, String nombreCompleto, String rol, boolean enabled,
+                           LocalDateTime fechaCreacion, LocalDateTime ultimoAcceso, Long totalAsistencias) {
+        this.id = id;
+        this.username = username;
+        this.nombreCompleto = nombreCompleto != null ? nombreCompleto : username;
+        this.rol = rol != null ? rol : "EMPLEADO";
+        this.enabled = enabled;
+        this.fechaCreacion = fechaCreacion != null ? fechaCreacion : LocalDateTime.now();
+        this.ultimoAcceso = ultimoAcceso;
+        this.totalAsistencias = totalAsistencias != null ? totalAsistencias.intValue() : 0;
+    }
 }
\ No newline at end of file
@@ -38,6 +38,7 @@ public class GlobalExceptionHandler {
       ResourceUnAuthorizedException.class,
       ValidatedRequestException.class,
       RuntimeCustomException.class,
+      ServiceUnavailableException.class,
       JWTVerificationException.class,
       SignatureVerificationException.class
   })
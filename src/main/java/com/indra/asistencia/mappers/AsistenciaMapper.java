@@ -1,6 +1,7 @@
 package com.indra.asistencia.mappers;
 
 import com.indra.asistencia.dto.AsistenciaResponseDto;
+import com.indra.asistencia.dto.AsistenciaView;
 import com.indra.asistencia.models.Asistencia;
 import org.springframework.stereotype.Component;
 
@@ -12,6 +13,7 @@ import java.util.stream.Collectors;
 public class AsistenciaMapper {
 
     private static final DateTimeFormatter FULL_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+    private static final DateTimeFormatter FECHA_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy");
 
     public AsistenciaResponseDto toResponseDto(Asistencia asistencia) {
         if (asistencia == null) return null;
@@ -41,12 +43,40 @@ public class AsistenciaMapper {
         return toResponseDto(asistencia);
     }
 
-    public List<AsistenciaResponseDto> toDtoList(List<Asistencia> asistencias) {
-        if (asistencias == null || asistencias.isEmpty()) {
+    public AsistenciaResponseDto toResponseDto(AsistenciaView vista) {
+        return vista == null ? null : toResponseDto(vista, vista.username());
+    }
+
+    // Para las proyecciones sin JOIN con users, el username lo aporta quien consulta
+    public AsistenciaResponseDto toResponseDto(AsistenciaView vista, String username) {
+        if (vista == null) return null;
+
+        return AsistenciaResponseDto.builder()
+                .id(vista.id())
+                .nombreEmpleado(username)
+                .usuarioId(vista.usuarioId())
+                .entrada(vista.entrada())
+                .salida(vista.salida())
+                .estado(vista.estado())
+                .fechaRegistro(vista.fechaRegistro() != null ? vista.fechaRegistro().format(FECHA_FORMATTER) : null)
+                .build();
+    }
+
+    public List<AsistenciaResponseDto> toDtoList(List<AsistenciaView> vistas) {
+        if (vistas == null || vistas.isEmpty()) {
+            return List.of();
+        }
+        return vistas.stream()
+                .map(this::toResponseDto)
+                .collect(Collectors.toList());
+    }
+
+    public List<AsistenciaResponseDto> toDtoList(List<AsistenciaView> vistas, String username) {
+        if (vistas == null || vistas.isEmpty()) {
             return List.of();
         }
-        return asistencias.stream()
-                .map(this::toDto)
+        return vistas.stream()
+                .map(vista -> toResponseDto(vista, username))
                 .collect(Collectors.toList());
     }
 
@@ -1,6 +1,8 @@
 package com.indra.asistencia.mappers;
 
 import com.indra.asistencia.dto.JustificacionAdminResponseDto;
+import com.indra.asistencia.dto.JustificacionResponseDto;
+import com.indra.asistencia.dto.JustificacionView;
 import com.indra.asistencia.models.Justificacion;
 import org.springframework.stereotype.Component;
 
@@ -30,12 +32,72 @@ public class JustificacionMapper {
                 .build();
     }
 
-    public List<JustificacionAdminResponseDto> toAdminDtoList(List<Justificacion> justificaciones) {
-        if (justificaciones == null || justificaciones.isEmpty()) {
+    public JustificacionResponseDto toResponseDto(Justificacion justificacion) {
+        if (justificacion == null) return null;
+
+        return JustificacionResponseDto.builder()
+                .id(justificacion.getId())
+                .username(justificacion.getUsuario() != null ? justificacion.getUsuario().getUsername() : "N/A")
+                .fecha(justificacion.getFecha())
+                .tipo(justificacion.getTipo())
+                .motivo(justificacion.getMotivo())
+                .estado(justificacion.getEstado())
+                .fechaSolicitud(justificacion.getFechaSolicitud() != null
+                    ? justificacion.getFechaSolicitud().format(FORMATTER)
+                    : "N/A")
+                .build();
+    }
+
+    public JustificacionAdminResponseDto toAdminDto(JustificacionView vista) {
+        if (vista == null) return null;
+
+        return JustificacionAdminResponseDto.builder()
+                .id(vista.id())
+                .username(vista.username() != null ? vista.username() : "N/A")
+                .nombreCompleto(vista.nombreCompleto() != null ? vista.nombreCompleto() : "N/A")
+                .fecha(vista.fecha())
+                .tipo(vista.tipo())
+                .motivo(vista.motivo())
+                .estado(vista.estado())
+                .fechaSolicitud(vista.fechaSolicitud() != null
+                    ? vista.fechaSolicitud().format(FORMATTER)
+                    : "N/A")
+                .build();
+    }
+
+    // Para las proyecciones sin JOIN con users, el username lo aporta quien consulta
+    public JustificacionResponseDto toResponseDto(JustificacionView vista, String username) {
+        if (vista == null) return null;
+
+        return JustificacionResponseDto.builder()
+                .id(vista.id())
+                .username(username)
+                .fecha(vista.fecha())
+                .tipo(vista.tipo())
+                .motivo(vista.motivo())
+                .estado(vista.estado())
+                .fechaSolicitud(vista.fechaSolicitud() != null
+                    ? vista.fechaSolicitud().format(FORMATTER)
+                    : "N/A")
+                .build();
+    }
+
+    public List<JustificacionResponseDto> toResponseDtoList(List<JustificacionView> vistas, String username) {
+        if (vistas == null || vistas.isEmpty()) {
+            return List.of();
+        }
+
+        return vistas.stream()
+                .map(vista -> toResponseDto(vista, username))
+                .collect(Collectors.toList());
+    }
+
+    public List<JustificacionAdminResponseDto> toAdminDtoList(List<JustificacionView> vistas) {
+        if (vistas == null || vistas.isEmpty()) {
             return List.of();
         }
         
-        return justificaciones.stream()
+        return vistas.stream()
                 .map(this::toAdminDto)
                 .collect(Collectors.toList());
     }
@@ -4,24 +4,32 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "ASISTENCIA")
+@Table(name = "ASISTENCIA", indexes = {
+    @Index(name = "IDX_ASISTENCIA_USR_FECHA", columnList = "user_id, fecha_registro, entrada"),
+    @Index(name = "IDX_ASISTENCIA_USR_FECHA_ID", columnList = "user_id, fecha_registro, id")
+})
 @Data 
 @Builder 
 @AllArgsConstructor 
 @NoArgsConstructor
 public class Asistencia {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "asistencia_seq")
+    @SequenceGenerator(name = "asistencia_seq", sequenceName = "SEQ_ASISTENCIA", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User usuario;
 
     private LocalDateTime entrada;
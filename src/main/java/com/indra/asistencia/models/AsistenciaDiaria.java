@@ -0,0 +1,74 @@
+package com.indra.asistencia.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Resumen de asistencia por usuario y dia (ASISTENCIA_DIARIA). El despachador del
+ * outbox lo mantiene de forma incremental; los reportes de puntualidad lo leen sin
+ * recorrer ASISTENCIA.
+ */
+@Entity
+@Table(name = "ASISTENCIA_DIARIA", indexes = {
+    @Index(name = "IDX_ASISTENCIA_DIARIA_FECHA", columnList = "fecha, user_id")
+})
+@IdClass(AsistenciaDiariaId.class)
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AsistenciaDiaria {
+    @Id
+    @Column(name = "user_id")
+    private Long usuarioId;
+
+    @Id
+    private LocalDate fecha;
+
+    @Column(name = "primera_entrada")
+    private LocalDateTime primeraEntrada;
+
+    @Column(name = "ultima_salida")
+    private LocalDateTime ultimaSalida;
+
+    @Column(name = "minutos_trabajados", nullable = false)
+    private int minutosTrabajados;
+
+    @Column(nullable = false)
+    private int sesiones;
+
+    @Column(nullable = false)
+    private boolean tardanza;
+
+    @Column(name = "estado_justificacion", length = 20)
+    private String estadoJustificacion;
+
+    public void sumarEntrada(LocalDateTime entrada, boolean tarde) {
+        sesiones++;
+        if (primeraEntrada == null || entrada.isBefore(primeraEntrada)) {
+            primeraEntrada = entrada;
+            tardanza = tarde;
+        }
+    }
+
+    public void sumarSalida(LocalDateTime entrada, LocalDateTime salida) {
+        minutosTrabajados += (int) Duration.between(entrada, salida).toMinutes();
+        if (ultimaSalida == null || salida.isAfter(ultimaSalida)) {
+            ultimaSalida = salida;
+        }
+    }
+
+    // Una justificacion aprobada no vuelve a PENDIENTE por otra solicitud del mismo dia
+    public void marcarJustificacion(String estado) {
+        if (!"APROBADO".equals(estadoJustificacion)) {
+            estadoJustificacion = estado;
+        }
+    }
+}
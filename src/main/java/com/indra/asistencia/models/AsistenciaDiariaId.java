@@ -0,0 +1,16 @@
+package com.indra.asistencia.models;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AsistenciaDiariaId implements Serializable {
+    private Long usuarioId;
+    private LocalDate fecha;
+}
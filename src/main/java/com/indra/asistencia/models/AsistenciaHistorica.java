@@ -0,0 +1,38 @@
+package com.indra.asistencia.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Sesion de ASISTENCIA de un periodo cerrado, movida por el archivado con su mismo id.
+ * Solo lectura desde la aplicacion; en Oracle la tabla se particiona por fecha_registro.
+ */
+@Entity
+@Table(name = "ASISTENCIA_HISTORICO", indexes = {
+    @Index(name = "IDX_ASIST_HIST_USR_FECHA_ID", columnList = "user_id, fecha_registro, id")
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AsistenciaHistorica {
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long usuarioId;
+
+    private LocalDateTime entrada;
+    private LocalDateTime salida;
+
+    @Column(name = "fecha_registro", nullable = false)
+    private LocalDate fechaRegistro;
+
+    private String estado;
+}
@@ -0,0 +1,36 @@
+package com.indra.asistencia.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "ESTADISTICA_DIARIA")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EstadisticaDiaria {
+    @Id
+    private LocalDate fecha;
+
+    @Column(name = "empleados_activos", nullable = false)
+    private int empleadosActivos;
+
+    @Column(nullable = false)
+    private int presentes;
+
+    @Column(nullable = false)
+    private int puntuales;
+
+    @Column(nullable = false)
+    private int tardanzas;
+
+    public int getAusentes() {
+        return Math.max(empleadosActivos - presentes, 0);
+    }
+}
@@ -0,0 +1,65 @@
+package com.indra.asistencia.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Efecto secundario pendiente de una operacion de asistencia; se escribe en la misma transaccion
+@Entity
+@Table(name = "OUTBOX_EVENTO")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventoOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_evento_seq")
+    @SequenceGenerator(name = "outbox_evento_seq", sequenceName = "SEQ_OUTBOX_EVENTO", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false, length = 30)
+    private String tipo;
+
+    @Column(name = "user_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "asistencia_id")
+    private Long asistenciaId;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    private LocalDateTime entrada;
+    private LocalDateTime salida;
+
+    @Column(name = "primera_del_dia", nullable = false)
+    private boolean primeraDelDia;
+
+    @Column(nullable = false)
+    private LocalDateTime creado;
+
+    // PENDIENTE o FALLIDO: agotados los reintentos el evento queda apartado para revision manual
+    @Column(nullable = false, length = 20)
+    private String estado;
+
+    @Column(nullable = false)
+    private int intentos;
+
+    @Column(length = 500)
+    private String error;
+
+    @PrePersist
+    protected void onCreate() {
+        if (creado == null) {
+            creado = LocalDateTime.now();
+        }
+        if (estado == null) {
+            estado = "PENDIENTE";
+        }
+    }
+}
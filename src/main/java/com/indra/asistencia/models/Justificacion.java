@@ -10,11 +10,14 @@ import java.time.LocalDateTime;
 @Data @Builder @AllArgsConstructor @NoArgsConstructor
 public class Justificacion {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "justificacion_seq")
+    @SequenceGenerator(name = "justificacion_seq", sequenceName = "SEQ_JUSTIFICACION", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User usuario;
 
     private LocalDate fecha;
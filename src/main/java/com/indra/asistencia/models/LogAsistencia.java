@@ -0,0 +1,40 @@
+package com.indra.asistencia.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Auditoria de marcaciones; la escribe en lotes AuditoriaServiceImpl, no JPA
+@Entity
+@Table(name = "LOG_ASISTENCIA", indexes = {
+    @Index(name = "IDX_LOG_ASISTENCIA_FECHA", columnList = "fecha_hora")
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LogAsistencia {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_log")
+    private Long id;
+
+    @Column(name = "user_id")
+    private Long usuarioId;
+
+    @Column(length = 20)
+    private String accion;
+
+    @Column(name = "fecha_hora")
+    private LocalDateTime fechaHora;
+
+    @Column(name = "ip_address", length = 45)
+    private String ipAddress;
+
+    @Column(length = 500)
+    private String detalle;
+}
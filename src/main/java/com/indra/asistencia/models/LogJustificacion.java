@@ -0,0 +1,43 @@
+package com.indra.asistencia.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Auditoria de justificaciones; la escribe en lotes AuditoriaServiceImpl, no JPA
+@Entity
+@Table(name = "LOG_JUSTIFICACION", indexes = {
+    @Index(name = "IDX_LOG_JUSTIFICACION_FECHA", columnList = "fecha_hora")
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LogJustificacion {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_log")
+    private Long id;
+
+    @Column(name = "justificacion_id")
+    private Long justificacionId;
+
+    @Column(length = 20)
+    private String accion;
+
+    @Column(name = "usuario_admin", length = 50)
+    private String usuarioAdmin;
+
+    @Column(name = "fecha_hora")
+    private LocalDateTime fechaHora;
+
+    @Column(name = "estado_anterior", length = 20)
+    private String estadoAnterior;
+
+    @Column(name = "estado_nuevo", length = 20)
+    private String estadoNuevo;
+}
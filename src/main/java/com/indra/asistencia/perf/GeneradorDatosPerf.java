@@ -0,0 +1,212 @@
+package com.indra.asistencia.perf;
+
+import com.indra.asistencia.service.IArchivoAsistenciaService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Generador del dataset del perfil 'perf' (H2 en modo Oracle). Inserta por conjuntos
+ * (INSERT ... SELECT sobre SYSTEM_RANGE) millones de filas de ASISTENCIA y JUSTIFICACION.
+ *
+ * Llegadas: 08:55 de media, sesgo fijo por empleado de +-10 min, +3 min los lunes y
+ * dispersion aproximadamente normal (suma de uniformes, ~9 min); salida 8,5 h despues.
+ * Un 4% de ausencias en dias laborables. Con la misma semilla el dataset es identico.
+ * ESTADISTICA_DIARIA y ASISTENCIA_DIARIA se derivan de las filas generadas; las sesiones
+ * de periodos cerrados terminan en ASISTENCIA_HISTORICO.
+ *
+ * Se ejecuta al terminar de crear los singletons (esquema ya creado), antes de que
+ * arranque Tomcat y de ApplicationReadyEvent: no entra trafico con la base a medias y
+ * el registro de presencia y las estadisticas se construyen sobre los datos generados.
+ */
+@Component
+@Profile("perf")
+public class GeneradorDatosPerf implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(GeneradorDatosPerf.class);
+
+    public static final String ADMIN = "admin";
+    public static final String PASSWORD = "12345";
+
+    private static final int DIAS_POR_SENTENCIA = 30;
+
+    private static final String LLEGADAS = """
+            SELECT u.X AS user_id, d.fecha,
+                   DATEADD(SECOND, 32100 + (MOD(u.X * 7919, 21) - 10) * 60
+                           + CASE WHEN ISO_DAY_OF_WEEK(d.fecha) = 1 THEN 180 ELSE 0 END
+                           + CAST((RAND() + RAND() + RAND() + RAND() - 2) * 900 AS INT),
+                           CAST(d.fecha AS TIMESTAMP)) AS llegada
+            FROM (SELECT DATEADD(DAY, -X, CURRENT_DATE) AS fecha FROM SYSTEM_RANGE(?, ?)) d
+            CROSS JOIN SYSTEM_RANGE(2, ?) u
+            WHERE ISO_DAY_OF_WEEK(d.fecha) <= 5 AND RAND() >= 0.04
+            """;
+
+    private static final String INSERTAR_ASISTENCIAS = """
+            INSERT INTO ASISTENCIA (id, user_id, fecha_registro, entrada, salida, estado)
+            SELECT ? + ROW_NUMBER() OVER (ORDER BY fecha, user_id), user_id, fecha, llegada,
+                   DATEADD(SECOND, 30600 + CAST((RAND() + RAND() + RAND() - 1.5) * 1200 AS INT), llegada),
+                   'COMPLETADO'
+            FROM (""" + LLEGADAS + ")";
+
+    // Hoy: solo quien ya llego, sin salida
+    private static final String INSERTAR_ASISTENCIAS_HOY = """
+            INSERT INTO ASISTENCIA (id, user_id, fecha_registro, entrada, salida, estado)
+            SELECT ? + ROW_NUMBER() OVER (ORDER BY fecha, user_id), user_id, fecha, llegada, NULL, 'EN_OFICINA'
+            FROM (""" + LLEGADAS + ") WHERE llegada <= LOCALTIMESTAMP";
+
+    private static final String INSERTAR_TARDANZAS = """
+            INSERT INTO JUSTIFICACION (id, user_id, fecha, tipo, motivo, estado, fechaSolicitud)
+            SELECT ROW_NUMBER() OVER (ORDER BY a.id), a.user_id, a.fecha_registro, 'TARDANZA',
+                   'Llegada después de las 09:10 - Sistema automático',
+                   CASE WHEN a.fecha_registro < DATEADD(DAY, -7, CURRENT_DATE) AND RAND() < 0.8
+                        THEN 'APROBADO' ELSE 'PENDIENTE' END,
+                   a.entrada
+            FROM ASISTENCIA a
+            WHERE CAST(a.entrada AS TIME) > TIME '09:10:00'
+            """;
+
+    // Resumenes diarios de los dias pasados con el mismo criterio que EstadisticaServiceImpl; hoy lo prepara el servicio
+    private static final String INSERTAR_ESTADISTICAS = """
+            INSERT INTO ESTADISTICA_DIARIA (fecha, empleados_activos, presentes, puntuales, tardanzas)
+            SELECT p.fecha, ?, COUNT(*),
+                   SUM(CASE WHEN CAST(p.primera AS TIME) > TIME '09:10:00' THEN 0 ELSE 1 END),
+                   SUM(CASE WHEN CAST(p.primera AS TIME) > TIME '09:10:00' THEN 1 ELSE 0 END)
+            FROM (SELECT fecha_registro AS fecha, MIN(entrada) AS primera
+                  FROM ASISTENCIA WHERE fecha_registro < CURRENT_DATE
+                  GROUP BY fecha_registro, user_id) p
+            GROUP BY p.fecha
+            """;
+
+    // Tabla de hechos con el mismo criterio que el despachador del outbox (minutos completos por sesion)
+    private static final String INSERTAR_ASISTENCIA_DIARIA = """
+            INSERT INTO ASISTENCIA_DIARIA (user_id, fecha, primera_entrada, ultima_salida, minutos_trabajados,
+                                           sesiones, tardanza, estado_justificacion)
+            SELECT user_id, fecha_registro, MIN(entrada), MAX(salida),
+                   COALESCE(SUM(DATEDIFF(SECOND, entrada, salida) / 60), 0), COUNT(*),
+                   CAST(MIN(entrada) AS TIME) > TIME '09:10:00', NULL
+            FROM ASISTENCIA
+            GROUP BY user_id, fecha_registro
+            """;
+
+    // MIN(estado): APROBADO prevalece sobre PENDIENTE
+    private static final String FUSIONAR_JUSTIFICACIONES_DIARIAS = """
+            MERGE INTO ASISTENCIA_DIARIA d
+            USING (SELECT user_id, fecha, MIN(estado) AS estado FROM JUSTIFICACION GROUP BY user_id, fecha) j
+            ON d.user_id = j.user_id AND d.fecha = j.fecha
+            WHEN MATCHED THEN UPDATE SET d.estado_justificacion = j.estado
+            WHEN NOT MATCHED THEN INSERT (user_id, fecha, minutos_trabajados, sesiones, tardanza, estado_justificacion)
+                VALUES (j.user_id, j.fecha, 0, 0, FALSE, j.estado)
+            """;
+
+    // Periodos cerrados directamente en el archivo, como los dejaria ArchivoAsistenciaServiceImpl
+    private static final String ARCHIVAR_ASISTENCIAS = """
+            INSERT INTO ASISTENCIA_HISTORICO (id, user_id, entrada, salida, fecha_registro, estado)
+            SELECT id, user_id, entrada, salida, fecha_registro, estado FROM ASISTENCIA WHERE fecha_registro < ?
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final PasswordEncoder passwordEncoder;
+    private final IArchivoAsistenciaService archivoService;
+    private final int usuarios;
+    private final int dias;
+    private final long semilla;
+    private final boolean incluirHoy;
+
+    public GeneradorDatosPerf(JdbcTemplate jdbc,
+                              PasswordEncoder passwordEncoder,
+                              IArchivoAsistenciaService archivoService,
+                              @Value("${app.perf.usuarios:5000}") int usuarios,
+                              @Value("${app.perf.dias:730}") int dias,
+                              @Value("${app.perf.semilla:42}") long semilla,
+                              @Value("${app.perf.incluir-hoy:true}") boolean incluirHoy) {
+        this.jdbc = jdbc;
+        this.passwordEncoder = passwordEncoder;
+        this.archivoService = archivoService;
+        this.usuarios = usuarios;
+        this.dias = dias;
+        this.semilla = semilla;
+        this.incluirHoy = incluirHoy;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Long existentes = jdbc.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        if (existentes != null && existentes > 0) {
+            logger.info("Perf - la base ya tiene datos, no se genera el dataset");
+            return;
+        }
+        long inicio = System.nanoTime();
+
+        // RAND() es por sesion: todo el dataset se genera sobre la misma conexion
+        jdbc.execute((ConnectionCallback<Void>) conexion -> {
+            JdbcTemplate sesion = new JdbcTemplate(new SingleConnectionDataSource(conexion, true));
+            generar(sesion);
+            return null;
+        });
+
+        logger.info("Perf - dataset generado en {} s: {} empleados, {} asistencias ({} archivadas), {} justificaciones (semilla {})",
+                (System.nanoTime() - inicio) / 1_000_000_000,
+                usuarios,
+                jdbc.queryForObject("SELECT COUNT(*) FROM ASISTENCIA", Long.class),
+                jdbc.queryForObject("SELECT COUNT(*) FROM ASISTENCIA_HISTORICO", Long.class),
+                jdbc.queryForObject("SELECT COUNT(*) FROM JUSTIFICACION", Long.class),
+                semilla);
+    }
+
+    private void generar(JdbcTemplate sesion) {
+        sesion.queryForObject("SELECT RAND(?)", Double.class, (int) semilla);
+        // app.perf.usuarios cuenta empleados (emp1..empN); el administrador va aparte con id 1
+        int totalUsuarios = usuarios + 1;
+
+        sesion.update("INSERT INTO roles (id, name) VALUES (1, 'ADMIN'), (2, 'EMPLEADO'), (3, 'KIOSCO')");
+        sesion.update("""
+                INSERT INTO users (id, username, password, nombre_completo, enabled, fecha_creacion)
+                SELECT X, CASE WHEN X = 1 THEN ? ELSE 'emp' || (X - 1) END, ?,
+                       CASE WHEN X = 1 THEN 'Administrador' ELSE 'Empleado ' || (X - 1) END,
+                       TRUE, DATEADD(DAY, -?, LOCALTIMESTAMP)
+                FROM SYSTEM_RANGE(1, ?)
+                """, ADMIN, passwordEncoder.encode(PASSWORD), dias, totalUsuarios);
+        sesion.update("""
+                INSERT INTO user_roles (id, user_id, role_id)
+                SELECT X, X, CASE WHEN X = 1 THEN 1 ELSE 2 END FROM SYSTEM_RANGE(1, ?)
+                """, totalUsuarios);
+
+        long asistencias = 0;
+        for (int desde = dias; desde >= 1; desde -= DIAS_POR_SENTENCIA) {
+            int hasta = Math.max(1, desde - DIAS_POR_SENTENCIA + 1);
+            asistencias += sesion.update(INSERTAR_ASISTENCIAS, asistencias, hasta, desde, totalUsuarios);
+        }
+        if (incluirHoy) {
+            asistencias += sesion.update(INSERTAR_ASISTENCIAS_HOY, asistencias, 0, 0, totalUsuarios);
+        }
+
+        long justificaciones = sesion.update(INSERTAR_TARDANZAS);
+        sesion.update(INSERTAR_ESTADISTICAS, totalUsuarios);
+        sesion.update(INSERTAR_ASISTENCIA_DIARIA);
+        sesion.update(FUSIONAR_JUSTIFICACIONES_DIARIAS);
+
+        LocalDate limiteArchivo = archivoService.getLimiteArchivo();
+        sesion.update(ARCHIVAR_ASISTENCIAS, limiteArchivo);
+        sesion.update("DELETE FROM ASISTENCIA WHERE fecha_registro < ?", limiteArchivo);
+
+        // Las secuencias pooled (allocationSize = 50) continuan por encima de los IDs generados
+        reiniciarSecuencia(sesion, "SEQ_ROLES", 3);
+        reiniciarSecuencia(sesion, "SEQ_USERS", totalUsuarios);
+        reiniciarSecuencia(sesion, "SEQ_USER_ROLES", totalUsuarios);
+        reiniciarSecuencia(sesion, "SEQ_ASISTENCIA", asistencias);
+        reiniciarSecuencia(sesion, "SEQ_JUSTIFICACION", justificaciones);
+    }
+
+    private void reiniciarSecuencia(JdbcTemplate sesion, String secuencia, long maximoId) {
+        sesion.execute("ALTER SEQUENCE " + secuencia + " RESTART WITH " + (maximoId + 50));
+    }
+}
@@ -0,0 +1,60 @@
+package com.indra.asistencia.repository;
+
+import com.indra.asistencia.dto.PuntualidadView;
+import com.indra.asistencia.models.AsistenciaDiaria;
+import com.indra.asistencia.models.AsistenciaDiariaId;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface AsistenciaDiariaRepository extends JpaRepository<AsistenciaDiaria, AsistenciaDiariaId> {
+
+    String VISTA_PUNTUALIDAD = "SELECT new com.indra.asistencia.dto.PuntualidadView(" +
+            "u.username, d.fecha, d.primeraEntrada, d.ultimaSalida, d.minutosTrabajados, d.sesiones, " +
+            "CASE WHEN d.primeraEntrada IS NULL THEN 'FALTA' WHEN d.tardanza = true THEN 'TARDANZA' ELSE 'PUNTUAL' END, " +
+            "d.estadoJustificacion) " +
+            "FROM AsistenciaDiaria d JOIN User u ON u.id = d.usuarioId ";
+
+    // Suma las sesiones de un lote del outbox a la fila del dia; los nulos conservan el valor actual
+    @Modifying
+    @Query("UPDATE AsistenciaDiaria d SET d.sesiones = d.sesiones + :sesiones, " +
+           "d.tardanza = CASE WHEN d.primeraEntrada IS NULL OR d.primeraEntrada > :entrada " +
+           "THEN :tardanza ELSE d.tardanza END, " +
+           "d.primeraEntrada = CASE WHEN d.primeraEntrada IS NULL OR d.primeraEntrada > :entrada " +
+           "THEN COALESCE(:entrada, d.primeraEntrada) ELSE d.primeraEntrada END, " +
+           "d.ultimaSalida = CASE WHEN d.ultimaSalida IS NULL OR d.ultimaSalida < :salida " +
+           "THEN COALESCE(:salida, d.ultimaSalida) ELSE d.ultimaSalida END, " +
+           "d.minutosTrabajados = d.minutosTrabajados + :minutos, " +
+           "d.estadoJustificacion = CASE WHEN d.estadoJustificacion = 'APROBADO' " +
+           "THEN d.estadoJustificacion ELSE COALESCE(:estado, d.estadoJustificacion) END " +
+           "WHERE d.usuarioId = :usuarioId AND d.fecha = :fecha")
+    int acumular(@Param("usuarioId") Long usuarioId,
+                 @Param("fecha") LocalDate fecha,
+                 @Param("sesiones") int sesiones,
+                 @Param("entrada") LocalDateTime entrada,
+                 @Param("tardanza") boolean tardanza,
+                 @Param("salida") LocalDateTime salida,
+                 @Param("minutos") int minutos,
+                 @Param("estado") String estado);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(VISTA_PUNTUALIDAD + "WHERE d.fecha BETWEEN :desde AND :hasta ORDER BY d.fecha, u.username")
+    List<PuntualidadView> findPuntualidad(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(VISTA_PUNTUALIDAD + "WHERE u.username = :username AND d.fecha BETWEEN :desde AND :hasta ORDER BY d.fecha")
+    List<PuntualidadView> findPuntualidadEmpleado(@Param("username") String username,
+                                                  @Param("desde") LocalDate desde,
+                                                  @Param("hasta") LocalDate hasta);
+}
@@ -0,0 +1,63 @@
+package com.indra.asistencia.repository;
+
+import com.indra.asistencia.dto.AsistenciaView;
+import com.indra.asistencia.models.AsistenciaHistorica;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+// Mismas proyecciones que AsistenciaRepository sobre el archivo de periodos cerrados
+public interface AsistenciaHistoricaRepository extends JpaRepository<AsistenciaHistorica, Long> {
+
+    String VISTA = "SELECT new com.indra.asistencia.dto.AsistenciaView(" +
+            "h.id, h.usuarioId, h.entrada, h.salida, h.estado, h.fechaRegistro) FROM AsistenciaHistorica h ";
+
+    String VISTA_CON_USUARIO = "SELECT new com.indra.asistencia.dto.AsistenciaView(" +
+            "h.id, u.id, u.username, h.entrada, h.salida, h.estado, h.fechaRegistro) " +
+            "FROM AsistenciaHistorica h JOIN User u ON u.id = h.usuarioId ";
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(VISTA + "WHERE h.usuarioId = :usuarioId ORDER BY h.fechaRegistro DESC, h.id DESC")
+    List<AsistenciaView> findHistorial(@Param("usuarioId") Long usuarioId, Limit limit);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(VISTA + "WHERE h.usuarioId = :usuarioId " +
+           "AND (h.fechaRegistro < :fecha OR (h.fechaRegistro = :fecha AND h.id < :id)) " +
+           "ORDER BY h.fechaRegistro DESC, h.id DESC")
+    List<AsistenciaView> findHistorialDespuesDe(@Param("usuarioId") Long usuarioId,
+                                                @Param("fecha") LocalDate fecha,
+                                                @Param("id") Long id,
+                                                Limit limit);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(VISTA_CON_USUARIO + "WHERE h.fechaRegistro BETWEEN :desde AND :hasta ORDER BY h.fechaRegistro, h.id")
+    List<AsistenciaView> findReporteRango(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    @Transactional(readOnly = true)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    @Query(VISTA_CON_USUARIO + "WHERE h.fechaRegistro BETWEEN :desde AND :hasta ORDER BY h.fechaRegistro, h.id")
+    Stream<AsistenciaView> streamReporteRango(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    @Modifying
+    @Query(value = "INSERT INTO ASISTENCIA_HISTORICO (id, user_id, entrada, salida, fecha_registro, estado) " +
+                   "SELECT id, user_id, entrada, salida, fecha_registro, estado FROM ASISTENCIA WHERE id IN :ids",
+           nativeQuery = true)
+    int copiarDesdeAsistencia(@Param("ids") Collection<Long> ids);
+}
@@ -1,16 +1,28 @@
 package com.indra.asistencia.repository;
 
+import com.indra.asistencia.dto.AsistenciaView;
 import com.indra.asistencia.models.Asistencia;
 import com.indra.asistencia.models.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.jpa.repository.query.Procedure;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface AsistenciaRepository extends JpaRepository<Asistencia, Long> {
@@ -23,6 +35,72 @@ public interface AsistenciaRepository extends JpaRepository<Asistencia, Long> {
 
     Optional<Asistencia> findFirstByUsuarioAndFechaRegistroOrderByEntradaDesc(User usuario, LocalDate fecha);
 
+    // Ultima sesion del dia; resuelta por IDX_ASISTENCIA_USR_FECHA (user_id, fecha_registro, entrada).
+    // JPQL explicito: la consulta derivada añade un LEFT JOIN a users solo para filtrar por la FK
+    @Query("SELECT a FROM Asistencia a WHERE a.usuario.id = :usuarioId AND a.fechaRegistro = :fecha ORDER BY a.entrada DESC")
+    List<Asistencia> findUltimaDelDia(@Param("usuarioId") Long usuarioId, @Param("fecha") LocalDate fecha, Limit limit);
+
+    // Proyecciones de solo lectura: sin entidades gestionadas ni dirty checking, y sin flush previo
+    String VISTA = "SELECT new com.indra.asistencia.dto.AsistenciaView(" +
+            "a.id, a.usuario.id, a.entrada, a.salida, a.estado, a.fechaRegistro) FROM Asistencia a ";
+
+    String VISTA_CON_USUARIO = "SELECT new com.indra.asistencia.dto.AsistenciaView(" +
+            "a.id, u.id, u.username, a.entrada, a.salida, a.estado, a.fechaRegistro) " +
+            "FROM Asistencia a JOIN a.usuario u ";
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(VISTA_CON_USUARIO + "WHERE a.fechaRegistro = :fecha")
+    List<AsistenciaView> findDelDiaConUsuario(@Param("fecha") LocalDate fecha);
+
+    // Paginacion keyset del historial; resuelta por IDX_ASISTENCIA_USR_FECHA_ID (user_id, fecha_registro, id)
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(VISTA + "WHERE a.usuario.id = :usuarioId ORDER BY a.fechaRegistro DESC, a.id DESC")
+    List<AsistenciaView> findHistorial(@Param("usuarioId") Long usuarioId, Limit limit);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(VISTA + "WHERE a.usuario.id = :usuarioId " +
+           "AND (a.fechaRegistro < :fecha OR (a.fechaRegistro = :fecha AND a.id < :id)) " +
+           "ORDER BY a.fechaRegistro DESC, a.id DESC")
+    List<AsistenciaView> findHistorialDespuesDe(@Param("usuarioId") Long usuarioId,
+                                                @Param("fecha") LocalDate fecha,
+                                                @Param("id") Long id,
+                                                Limit limit);
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(VISTA_CON_USUARIO + "WHERE a.fechaRegistro BETWEEN :desde AND :hasta ORDER BY a.fechaRegistro, a.id")
+    List<AsistenciaView> findReporteRango(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    @Transactional(readOnly = true)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")
+    })
+    @Query(VISTA_CON_USUARIO + "WHERE a.fechaRegistro BETWEEN :desde AND :hasta ORDER BY a.fechaRegistro, a.id")
+    Stream<AsistenciaView> streamReporteRango(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    @Query("SELECT a FROM Asistencia a WHERE a.usuario.id IN :usuarioIds " +
+           "AND a.fechaRegistro BETWEEN :desde AND :hasta")
+    List<Asistencia> findByUsuariosYRango(@Param("usuarioIds") Collection<Long> usuarioIds,
+                                          @Param("desde") LocalDate desde,
+                                          @Param("hasta") LocalDate hasta);
+
+    // Archivado de periodos cerrados: ids por lotes y bloqueo con SKIP LOCKED (-2), como el outbox
+    @Query("SELECT a.id FROM Asistencia a WHERE a.fechaRegistro < :limite ORDER BY a.id")
+    List<Long> findIdsAnterioresA(@Param("limite") LocalDate limite, Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT a.id FROM Asistencia a WHERE a.id IN :ids")
+    List<Long> bloquearParaArchivo(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Asistencia a WHERE a.id IN :ids")
+    int eliminarPorIds(@Param("ids") Collection<Long> ids);
+
     @Query(value = "SELECT * FROM ASISTENCIA WHERE user_id = :usuarioId AND fecha_registro = :fecha ORDER BY entrada DESC", nativeQuery = true)
     List<Asistencia> findByUsuarioIdAndFechaNative(@Param("usuarioId") Long usuarioId, @Param("fecha") LocalDate fecha);
 
@@ -32,10 +110,4 @@ public interface AsistenciaRepository extends JpaRepository<Asistencia, Long> {
     @Param("p_desde") LocalDate desde,
     @Param("p_hasta") LocalDate hasta
     );
-    
-    @Procedure(name = "sp_reporte_asistencia_rango")
-    List<Object[]> reporteGeneralAsistencia(
-            @Param("p_desde") LocalDate desde,
-           @Param("p_hasta") LocalDate hasta
-    );
 }
\ No newline at end of file
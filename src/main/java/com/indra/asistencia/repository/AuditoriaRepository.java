@@ -0,0 +1,72 @@
+package com.indra.asistencia.repository;
+
+import com.indra.asistencia.models.LogAsistencia;
+import com.indra.asistencia.models.LogJustificacion;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Escritura por lotes JDBC de LOG_ASISTENCIA y LOG_JUSTIFICACION: un solo viaje por lote
+ * (Hibernate no agrupa inserts con id IDENTITY) y purga de filas antiguas por trozos.
+ */
+@Repository
+public class AuditoriaRepository {
+
+    private static final String INSERTAR_LOG_ASISTENCIA = """
+            INSERT INTO LOG_ASISTENCIA (user_id, accion, fecha_hora, ip_address, detalle)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private static final String INSERTAR_LOG_JUSTIFICACION = """
+            INSERT INTO LOG_JUSTIFICACION (justificacion_id, accion, usuario_admin, fecha_hora, estado_anterior, estado_nuevo)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    // Cada trozo es una sentencia en autocommit: la purga no retiene undo ni bloqueos de toda la tabla
+    private static final String PURGAR = """
+            DELETE FROM %1$s WHERE id_log IN (
+                SELECT id_log FROM %1$s WHERE fecha_hora < ? FETCH FIRST ? ROWS ONLY)
+            """;
+
+    private static final String PURGAR_LOG_ASISTENCIA = PURGAR.formatted("LOG_ASISTENCIA");
+    private static final String PURGAR_LOG_JUSTIFICACION = PURGAR.formatted("LOG_JUSTIFICACION");
+
+    private final JdbcTemplate jdbc;
+
+    public AuditoriaRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public void insertarLogsAsistencia(List<LogAsistencia> logs) {
+        jdbc.batchUpdate(INSERTAR_LOG_ASISTENCIA, logs, logs.size(), (ps, log) -> {
+            ps.setObject(1, log.getUsuarioId());
+            ps.setString(2, log.getAccion());
+            ps.setTimestamp(3, Timestamp.valueOf(log.getFechaHora()));
+            ps.setString(4, log.getIpAddress());
+            ps.setString(5, log.getDetalle());
+        });
+    }
+
+    public void insertarLogsJustificacion(List<LogJustificacion> logs) {
+        jdbc.batchUpdate(INSERTAR_LOG_JUSTIFICACION, logs, logs.size(), (ps, log) -> {
+            ps.setObject(1, log.getJustificacionId());
+            ps.setString(2, log.getAccion());
+            ps.setString(3, log.getUsuarioAdmin());
+            ps.setTimestamp(4, Timestamp.valueOf(log.getFechaHora()));
+            ps.setString(5, log.getEstadoAnterior());
+            ps.setString(6, log.getEstadoNuevo());
+        });
+    }
+
+    public int purgarLogsAsistencia(LocalDateTime antesDe, int tamanioTrozo) {
+        return jdbc.update(PURGAR_LOG_ASISTENCIA, Timestamp.valueOf(antesDe), tamanioTrozo);
+    }
+
+    public int purgarLogsJustificacion(LocalDateTime antesDe, int tamanioTrozo) {
+        return jdbc.update(PURGAR_LOG_JUSTIFICACION, Timestamp.valueOf(antesDe), tamanioTrozo);
+    }
+}
@@ -0,0 +1,31 @@
+package com.indra.asistencia.repository;
+
+import com.indra.asistencia.models.EstadisticaDiaria;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface EstadisticaDiariaRepository extends JpaRepository<EstadisticaDiaria, LocalDate> {
+
+    List<EstadisticaDiaria> findByFechaBetweenOrderByFecha(LocalDate desde, LocalDate hasta);
+
+    @Modifying
+    @Query("UPDATE EstadisticaDiaria e SET e.presentes = e.presentes + :presentes, " +
+           "e.puntuales = e.puntuales + :puntuales, e.tardanzas = e.tardanzas + :tardanzas " +
+           "WHERE e.fecha = :fecha")
+    int registrarPresentes(@Param("fecha") LocalDate fecha,
+                           @Param("presentes") int presentes,
+                           @Param("puntuales") int puntuales,
+                           @Param("tardanzas") int tardanzas);
+
+    // Nunca sobrescribe una fila existente; un insert concurrente de la misma fecha falla por la clave primaria
+    @Modifying
+    @Query(value = "MERGE INTO ESTADISTICA_DIARIA e USING (SELECT CAST(:fecha AS DATE) AS fecha FROM DUAL) n ON (e.fecha = n.fecha) " +
+                   "WHEN NOT MATCHED THEN INSERT (fecha, empleados_activos, presentes, puntuales, tardanzas) " +
+                   "VALUES (n.fecha, :empleadosActivos, 0, 0, 0)", nativeQuery = true)
+    int crearVacia(@Param("fecha") LocalDate fecha, @Param("empleadosActivos") int empleadosActivos);
+}
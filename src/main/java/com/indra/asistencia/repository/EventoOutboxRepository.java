@@ -0,0 +1,27 @@
+package com.indra.asistencia.repository;
+
+import com.indra.asistencia.models.EventoOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    @Query("SELECT e.id FROM EventoOutbox e WHERE e.estado = 'PENDIENTE' ORDER BY e.id")
+    List<Long> findIdsPendientes(Limit limit);
+
+    // SKIP LOCKED (-2): varias instancias pueden despachar en paralelo sin bloquearse. El estado se
+    // comprueba de nuevo: otra instancia puede haberlo marcado FALLIDO tras findIdsPendientes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM EventoOutbox e WHERE e.id IN :ids AND e.estado = 'PENDIENTE' ORDER BY e.id")
+    List<EventoOutbox> bloquearPendientes(@Param("ids") Collection<Long> ids);
+}
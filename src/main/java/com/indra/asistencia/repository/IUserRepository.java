@@ -1,16 +1,62 @@
 package com.indra.asistencia.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.indra.asistencia.dto.UserResponseDto;
 import com.indra.asistencia.models.User;
 
+import jakarta.persistence.QueryHint;
+
 public interface IUserRepository extends JpaRepository<User,Long> {
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT u FROM User u WHERE u.username = :username")
     Optional<User> getByUserName(@Param("username") String username);
 
+    // Para la cache de UserServiceImpl: lee de la BD sin pasar por la de segundo nivel, asi los dos TTL no se suman
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"))
+    @Query("SELECT u FROM User u WHERE u.username = :username")
+    Optional<User> getByUserNameDesdeBd(@Param("username") String username);
+
+    // Solo el ID: los listados del propio usuario no necesitan la fila completa (ni el hash)
+    @Transactional(readOnly = true)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true")
+    })
+    @Query("SELECT u.id FROM User u WHERE u.username = :username")
+    Optional<Long> findIdByUsername(@Param("username") String username);
+
+    long countByEnabledTrue();
+
+    List<User> findByUsernameIn(Collection<String> usernames);
+
+    // Total de asistencias: tabla viva mas periodos archivados (ASISTENCIA_HISTORICO)
+    String RESUMEN_USUARIO = "SELECT new com.indra.asistencia.dto.UserResponseDto(" +
+            "u.id, u.username, u.nombreCompleto, " +
+            "(SELECT MIN(r.name) FROM UserRols ur JOIN ur.role r WHERE ur.user = u), " +
+            "u.enabled, u.fechaCreacion, u.ultimoAcceso, " +
+            "(SELECT COUNT(a) FROM Asistencia a WHERE a.usuario = u) + " +
+            "(SELECT COUNT(h) FROM AsistenciaHistorica h WHERE h.usuarioId = u.id)) " +
+            "FROM User u";
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(RESUMEN_USUARIO + " ORDER BY u.id")
+    List<UserResponseDto> findResumenUsuarios();
+
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query(RESUMEN_USUARIO + " WHERE u.id = :id")
+    Optional<UserResponseDto> findResumenUsuario(@Param("id") Long id);
+
 }
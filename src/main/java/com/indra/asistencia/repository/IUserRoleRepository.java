@@ -2,17 +2,26 @@ package com.indra.asistencia.repository;
 
 import java.util.List;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.indra.asistencia.models.UserRols;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface IUserRoleRepository extends JpaRepository<UserRols, Long> {
 
-    @Query("SELECT ur FROM UserRols ur WHERE ur.user.id = :userId")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT ur FROM UserRols ur JOIN FETCH ur.role WHERE ur.user.id = :userId")
     List<UserRols> getRolesByUser(@Param("userId") Long userId);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE"))
+    @Query("SELECT ur FROM UserRols ur JOIN FETCH ur.role WHERE ur.user.id = :userId")
+    List<UserRols> getRolesByUserDesdeBd(@Param("userId") Long userId);
+
 }
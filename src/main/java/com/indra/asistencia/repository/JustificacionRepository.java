@@ -1,9 +1,35 @@
 package com.indra.asistencia.repository;
 
+import com.indra.asistencia.dto.JustificacionView;
 import com.indra.asistencia.models.Justificacion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
 import java.util.List;
 
 public interface JustificacionRepository extends JpaRepository<Justificacion, Long> {
-    List<Justificacion> findByEstado(String estado);
-}
\ No newline at end of file
+    // Proyecciones de solo lectura: sin entidades gestionadas ni dirty checking, y sin flush previo
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query("SELECT new com.indra.asistencia.dto.JustificacionView(" +
+           "j.id, u.username, u.nombreCompleto, j.fecha, j.tipo, j.motivo, j.estado, j.fechaSolicitud) " +
+           "FROM Justificacion j JOIN j.usuario u WHERE j.estado = :estado ORDER BY j.id")
+    List<JustificacionView> findVistasByEstado(@Param("estado") String estado);
+
+    // Solo la FK: filtrar por j.usuario.id no necesita JOIN con users
+    @Transactional(readOnly = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL"))
+    @Query("SELECT new com.indra.asistencia.dto.JustificacionView(" +
+           "j.id, j.fecha, j.tipo, j.motivo, j.estado, j.fechaSolicitud) " +
+           "FROM Justificacion j WHERE j.usuario.id = :usuarioId ORDER BY j.id")
+    List<JustificacionView> findVistasByUsuarioId(@Param("usuarioId") Long usuarioId);
+
+    long countByEstado(String estado);
+    long countByFechaAndEstado(LocalDate fecha, String estado);
+}
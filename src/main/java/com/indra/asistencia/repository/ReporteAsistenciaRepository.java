@@ -0,0 +1,115 @@
+package com.indra.asistencia.repository;
+
+import com.indra.asistencia.dto.ResumenAsistenciaView;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.CallableStatementCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+/**
+ * Reporte general por rango leido fila a fila. En Oracle llama a sp_reporte_asistencia_rango
+ * y recorre el ref cursor con el fetch size configurado; en H2 (perfiles test y perf), sin
+ * procedimientos, ejecuta la misma consulta directamente.
+ */
+@Repository
+public class ReporteAsistenciaRepository {
+
+    // Misma consulta que sp_reporte_asistencia_rango: cada tabla se agrega por usuario antes del JOIN
+    private static final String RESUMEN = """
+            SELECT u.username,
+                   COALESCE(a.total_dias, 0) AS total_dias,
+                   COALESCE(a.dias_asistidos, 0) AS dias_asistidos,
+                   COALESCE(j.justificaciones_aprobadas, 0) AS justificaciones_aprobadas
+            FROM users u
+            LEFT JOIN (SELECT user_id,
+                              COUNT(DISTINCT fecha_registro) AS total_dias,
+                              COUNT(DISTINCT CASE WHEN entrada IS NOT NULL THEN fecha_registro END) AS dias_asistidos
+                       FROM %s
+                       WHERE fecha_registro BETWEEN ? AND ?
+                       GROUP BY user_id) a ON a.user_id = u.id
+            LEFT JOIN (SELECT user_id, COUNT(*) AS justificaciones_aprobadas
+                       FROM JUSTIFICACION
+                       WHERE estado = 'APROBADO' AND fecha BETWEEN ? AND ?
+                       GROUP BY user_id) j ON j.user_id = u.id
+            ORDER BY u.username
+            """;
+
+    public static final String RESUMEN_RANGO = RESUMEN.formatted("ASISTENCIA");
+
+    // Rango que llega a periodos archivados
+    public static final String RESUMEN_RANGO_CON_ARCHIVO = RESUMEN.formatted("""
+            (SELECT user_id, fecha_registro, entrada FROM ASISTENCIA
+                        UNION ALL
+                        SELECT user_id, fecha_registro, entrada FROM ASISTENCIA_HISTORICO) s""");
+
+    private static final String LLAMADA_RESUMEN_RANGO = "{call sp_reporte_asistencia_rango(?, ?, ?)}";
+
+    private final JdbcTemplate jdbc;
+    private final boolean procedimientos;
+    private final int fetchSize;
+
+    public ReporteAsistenciaRepository(JdbcTemplate jdbc,
+                                       @Value("${app.reportes.procedimientos:true}") boolean procedimientos,
+                                       @Value("${app.reportes.fetch-size:500}") int fetchSize) {
+        this.jdbc = jdbc;
+        this.procedimientos = procedimientos;
+        this.fetchSize = fetchSize;
+    }
+
+    // En Oracle el procedimiento incluye siempre el archivo: la particion por fecha descarta lo que no entra en el rango
+    public long streamResumenRango(LocalDate desde, LocalDate hasta, boolean incluirArchivo,
+                                   Consumer<ResumenAsistenciaView> consumidor) {
+        if (!procedimientos) {
+            long[] filas = {0};
+            jdbc.query(conexion -> {
+                PreparedStatement ps = conexion.prepareStatement(incluirArchivo ? RESUMEN_RANGO_CON_ARCHIVO : RESUMEN_RANGO);
+                ps.setFetchSize(fetchSize);
+                ps.setObject(1, desde);
+                ps.setObject(2, hasta);
+                ps.setObject(3, desde);
+                ps.setObject(4, hasta);
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                consumidor.accept(fila(rs));
+                filas[0]++;
+            });
+            return filas[0];
+        }
+
+        return jdbc.execute(conexion -> {
+            CallableStatement cs = conexion.prepareCall(LLAMADA_RESUMEN_RANGO);
+            cs.setObject(1, desde);
+            cs.setObject(2, hasta);
+            cs.registerOutParameter(3, Types.REF_CURSOR);
+            return cs;
+        }, (CallableStatementCallback<Long>) cs -> {
+            cs.execute();
+            long filas = 0;
+            try (ResultSet rs = cs.getObject(3, ResultSet.class)) {
+                rs.setFetchSize(fetchSize);
+                while (rs.next()) {
+                    consumidor.accept(fila(rs));
+                    filas++;
+                }
+            }
+            return filas;
+        });
+    }
+
+    private ResumenAsistenciaView fila(ResultSet rs) throws SQLException {
+        return new ResumenAsistenciaView(
+                rs.getString("username"),
+                rs.getLong("total_dias"),
+                rs.getLong("dias_asistidos"),
+                rs.getLong("justificaciones_aprobadas"));
+    }
+}
@@ -0,0 +1,8 @@
+package com.indra.asistencia.service;
+
+import java.time.LocalDate;
+
+public interface IArchivoAsistenciaService {
+    int archivar();
+    LocalDate getLimiteArchivo();
+}
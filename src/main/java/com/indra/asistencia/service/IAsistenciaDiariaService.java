@@ -0,0 +1,13 @@
+package com.indra.asistencia.service;
+
+import com.indra.asistencia.dto.PuntualidadView;
+import com.indra.asistencia.models.AsistenciaDiaria;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface IAsistenciaDiariaService {
+    void acumular(Collection<AsistenciaDiaria> dias);
+    List<PuntualidadView> reportePuntualidad(LocalDate desde, LocalDate hasta, String username);
+}
@@ -1,16 +1,21 @@
 package com.indra.asistencia.service;
 
+import com.indra.asistencia.commons.CursorPageModel;
+import com.indra.asistencia.commons.PaginationModel;
 import com.indra.asistencia.dto.*;
-import com.indra.asistencia.models.Justificacion;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface IAsistenciaService {
     String registrarAsistencia(String username, String accion);
-    List<AsistenciaResponseDto> getHistorial(String username);
+    List<EventoAsistenciaResultadoDto> registrarLote(List<EventoAsistenciaDto> eventos);
+    CursorPageModel<AsistenciaResponseDto> getHistorial(String username, PaginationModel paginationModel);
     JustificacionResponseDto solicitarJustificacion(String username, JustificacionRequestDto dto);
-    List<Justificacion> getJustificacionesPendientes();
+    List<JustificacionAdminResponseDto> getJustificacionesPendientes();
     String aprobarJustificacion(Long id);
     List<AsistenciaResponseDto> reportePorRangoFechas(LocalDate desde, LocalDate hasta);
+    void exportarReportePorRangoFechas(LocalDate desde, LocalDate hasta, Consumer<AsistenciaResponseDto> consumidor);
+    void exportarResumenPorRangoFechas(LocalDate desde, LocalDate hasta, Consumer<ResumenAsistenciaView> consumidor);
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package com.indra.asistencia.service;
+
+import com.indra.asistencia.models.Asistencia;
+import com.indra.asistencia.models.Justificacion;
+
+public interface IAuditoriaService {
+    void registrarAsistencia(Asistencia asistencia, String accion);
+    void registrarJustificacion(Justificacion justificacion, String accion, String estadoAnterior);
+    int vaciar();
+    int purgar();
+}
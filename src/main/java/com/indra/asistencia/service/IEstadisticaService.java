@@ -0,0 +1,11 @@
+package com.indra.asistencia.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+
+public interface IEstadisticaService {
+    void registrarPrimerasEntradas(Collection<LocalDateTime> entradas);
+    Map<String, Object> getEstadisticas();
+    void prepararDia();
+}
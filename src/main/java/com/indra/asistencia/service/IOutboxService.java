@@ -0,0 +1,11 @@
+package com.indra.asistencia.service;
+
+import com.indra.asistencia.models.Asistencia;
+import com.indra.asistencia.models.Justificacion;
+
+public interface IOutboxService {
+    void registrarCheckin(Asistencia asistencia, boolean primeraDelDia);
+    void registrarCheckout(Asistencia asistencia);
+    void registrarJustificacion(Justificacion justificacion);
+    int despachar();
+}
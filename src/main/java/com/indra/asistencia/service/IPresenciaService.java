@@ -0,0 +1,16 @@
+package com.indra.asistencia.service;
+
+import com.indra.asistencia.dto.PresenciaDto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface IPresenciaService {
+    void registrarEntrada(Long usuarioId, String username, LocalDateTime entrada);
+    void registrarSalida(Long usuarioId, String username, LocalDateTime entrada, LocalDateTime salida);
+    Optional<PresenciaDto> getPresenciaHoy(String username);
+    List<PresenciaDto> getPresentes();
+    void renombrarUsuario(String anterior, String nuevo);
+    void reconstruir();
+}
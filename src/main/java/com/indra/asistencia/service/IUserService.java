@@ -1,9 +1,15 @@
 package com.indra.asistencia.service;
 
+import java.util.Map;
+
 import com.indra.asistencia.models.User;
 
 public interface IUserService {
 
     User getByUserName(String username);
 
+    void invalidarCache(String username);
+
+    Map<String, Object> getEstadisticasCache();
+
 }
@@ -0,0 +1,90 @@
+package com.indra.asistencia.service.impl;
+
+import com.indra.asistencia.repository.AsistenciaHistoricaRepository;
+import com.indra.asistencia.repository.AsistenciaRepository;
+import com.indra.asistencia.service.IArchivoAsistenciaService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Archivado de periodos cerrados: el mes en curso y los anteriores hasta completar
+ * app.archivo.meses-activos quedan en ASISTENCIA; lo anterior se mueve a
+ * ASISTENCIA_HISTORICO en lotes, cada uno en su propia transaccion.
+ *
+ * Las lecturas consultan el archivo solo si el rango pedido empieza antes del limite de
+ * archivo, que depende solo de la fecha y es el mismo en todas las instancias.
+ */
+@Service
+public class ArchivoAsistenciaServiceImpl implements IArchivoAsistenciaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArchivoAsistenciaServiceImpl.class);
+
+    private final AsistenciaRepository asistenciaRepo;
+    private final AsistenciaHistoricaRepository historicoRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int tamanioLote;
+    private final int mesesActivos;
+
+    public ArchivoAsistenciaServiceImpl(AsistenciaRepository asistenciaRepo,
+                                        AsistenciaHistoricaRepository historicoRepo,
+                                        PlatformTransactionManager transactionManager,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${app.archivo.lote:500}") int tamanioLote,
+                                        @Value("${app.archivo.meses-activos:2}") int mesesActivos) {
+        this.asistenciaRepo = asistenciaRepo;
+        this.historicoRepo = historicoRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        // IN de hasta 1000 elementos en Oracle
+        this.tamanioLote = Math.clamp(tamanioLote, 1, 1000);
+        this.mesesActivos = Math.max(mesesActivos, 1);
+    }
+
+    @Override
+    @Scheduled(cron = "${app.archivo.cron:0 30 2 * * *}")
+    public int archivar() {
+        LocalDate limite = getLimiteArchivo();
+        int total = 0;
+        int archivadas;
+        do {
+            archivadas = transactionTemplate.execute(status -> archivarLote(limite));
+            total += archivadas;
+        } while (archivadas == tamanioLote);
+
+        meterRegistry.counter("asistencia.archivo.filas").increment(total);
+        if (total > 0) {
+            logger.info("Archivo - {} asistencias anteriores a {} movidas a ASISTENCIA_HISTORICO", total, limite);
+        }
+        return total;
+    }
+
+    private int archivarLote(LocalDate limite) {
+        List<Long> ids = asistenciaRepo.findIdsAnterioresA(limite, Limit.of(tamanioLote));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // Las filas bloqueadas (check-out en curso u otra instancia archivando) quedan para la siguiente pasada
+        List<Long> bloqueadas = asistenciaRepo.bloquearParaArchivo(ids);
+        if (!bloqueadas.isEmpty()) {
+            historicoRepo.copiarDesdeAsistencia(bloqueadas);
+            asistenciaRepo.eliminarPorIds(bloqueadas);
+        }
+        return bloqueadas.size();
+    }
+
+    @Override
+    public LocalDate getLimiteArchivo() {
+        return LocalDate.now().withDayOfMonth(1).minusMonths(mesesActivos - 1L);
+    }
+}
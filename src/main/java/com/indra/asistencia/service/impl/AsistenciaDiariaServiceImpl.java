@@ -0,0 +1,54 @@
+package com.indra.asistencia.service.impl;
+
+import com.indra.asistencia.dto.PuntualidadView;
+import com.indra.asistencia.exception.BadRequestException;
+import com.indra.asistencia.models.AsistenciaDiaria;
+import com.indra.asistencia.repository.AsistenciaDiariaRepository;
+import com.indra.asistencia.service.IAsistenciaDiariaService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Tabla de hechos ASISTENCIA_DIARIA: una fila por usuario y dia que el outbox
+ * actualiza con los check-in, check-out y justificaciones de cada lote.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class AsistenciaDiariaServiceImpl implements IAsistenciaDiariaService {
+
+    private final AsistenciaDiariaRepository asistenciaDiariaRepo;
+
+    @Override
+    public void acumular(Collection<AsistenciaDiaria> dias) {
+        for (AsistenciaDiaria dia : dias) {
+            int actualizadas = asistenciaDiariaRepo.acumular(dia.getUsuarioId(), dia.getFecha(), dia.getSesiones(),
+                    dia.getPrimeraEntrada(), dia.isTardanza(), dia.getUltimaSalida(), dia.getMinutosTrabajados(),
+                    dia.getEstadoJustificacion());
+            if (actualizadas == 0) {
+                // Primer evento del dia: el acumulado del lote es la fila completa. Si otra instancia
+                // la inserta a la vez, la clave primaria revierte el lote y sus eventos se reintentan
+                asistenciaDiariaRepo.save(dia);
+            }
+        }
+    }
+
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    @Transactional(readOnly = true)
+    public List<PuntualidadView> reportePuntualidad(LocalDate desde, LocalDate hasta, String username) {
+        if (desde.isAfter(hasta)) {
+            throw new BadRequestException("La fecha 'desde' no puede ser posterior a 'hasta'");
+        }
+        if (username == null || username.isBlank()) {
+            return asistenciaDiariaRepo.findPuntualidad(desde, hasta);
+        }
+        return asistenciaDiariaRepo.findPuntualidadEmpleado(username, desde, hasta);
+    }
+}
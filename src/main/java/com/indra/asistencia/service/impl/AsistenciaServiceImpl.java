@@ -1,31 +1,64 @@
 package com.indra.asistencia.service.impl;
 
+import com.indra.asistencia.commons.CursorPageModel;
+import com.indra.asistencia.commons.PaginationModel;
 import com.indra.asistencia.dto.AsistenciaResponseDto;
+import com.indra.asistencia.dto.AsistenciaView;
+import com.indra.asistencia.dto.EventoAsistenciaDto;
+import com.indra.asistencia.dto.EventoAsistenciaResultadoDto;
+import com.indra.asistencia.dto.JustificacionAdminResponseDto;
 import com.indra.asistencia.dto.JustificacionRequestDto;
 import com.indra.asistencia.dto.JustificacionResponseDto;
-import com.indra.asistencia.exception.ResourceNotFoundException;
+import com.indra.asistencia.dto.ResumenAsistenciaView;
+import com.indra.asistencia.exception.BadRequestException;
 import com.indra.asistencia.exception.ValidatedRequestException;
 import com.indra.asistencia.mappers.AsistenciaMapper;
 import com.indra.asistencia.models.Asistencia;
-import com.indra.asistencia.models.Justificacion;
 import com.indra.asistencia.models.User;
+import com.indra.asistencia.repository.AsistenciaHistoricaRepository;
 import com.indra.asistencia.repository.AsistenciaRepository;
 import com.indra.asistencia.repository.IUserRepository;
-import com.indra.asistencia.repository.JustificacionRepository;
+import com.indra.asistencia.repository.ReporteAsistenciaRepository;
+import com.indra.asistencia.service.IArchivoAsistenciaService;
 import com.indra.asistencia.service.IAsistenciaService;
+import com.indra.asistencia.service.IAuditoriaService;
+import com.indra.asistencia.service.IJustificacionService;
+import com.indra.asistencia.service.IOutboxService;
+import com.indra.asistencia.service.IPresenciaService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.bind.annotation.ResponseStatus;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -36,68 +69,68 @@ public class AsistenciaServiceImpl implements IAsistenciaService {
     
     private final IUserRepository userRepo;
     private final AsistenciaRepository asistenciaRepo;
-    private final JustificacionRepository justificacionRepo;
+    private final AsistenciaHistoricaRepository historicoRepo;
+    private final IArchivoAsistenciaService archivoService;
+    private final ReporteAsistenciaRepository reporteRepo;
     private final AsistenciaMapper asistenciaMapper;
+    private final IPresenciaService presenciaService;
+    private final IOutboxService outboxService;
+    private final IAuditoriaService auditoriaService;
+    private final IJustificacionService justificacionService;
+    private final MeterRegistry meterRegistry;
 
-    private static final LocalTime HORA_LIMITE_TARDANZA = LocalTime.of(9, 10);
+    static final LocalTime HORA_LIMITE_TARDANZA = LocalTime.of(9, 10);
+    // Desfase admitido entre el reloj del kiosco y el del servidor
+    private static final Duration TOLERANCIA_RELOJ = Duration.ofMinutes(2);
+    private static final int DEFAULT_ROWS_PER_PAGE = 20;
+    private static final int MAX_ROWS_PER_PAGE = 100;
+
+    private static final Comparator<AsistenciaView> ORDEN_REPORTE =
+            Comparator.comparing(AsistenciaView::fechaRegistro).thenComparing(AsistenciaView::id);
+    private static final Comparator<AsistenciaView> ORDEN_HISTORIAL = ORDEN_REPORTE.reversed();
 
     @Override
     public String registrarAsistencia(String username, String accion) {
-        logger.info("=== REGISTRO DE ASISTENCIA ===");
-        logger.info("Usuario: {}", username);
-        logger.info("Acción: {}", accion);
-        
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String tipo = "CHECKOUT".equalsIgnoreCase(accion) ? "checkout" : "CHECKIN".equalsIgnoreCase(accion) ? "checkin" : "otra";
+        try {
+            Marcacion marcacion = marcar(username, accion);
+            registrarMetricaMarcacion(sample, tipo, "ok", "ninguno", marcacion.puntualidad());
+            return marcacion.mensaje();
+        } catch (MarcacionRechazada e) {
+            registrarMetricaMarcacion(sample, tipo, "rechazado", e.motivo, "n/a");
+            throw e;
+        } catch (RuntimeException e) {
+            registrarMetricaMarcacion(sample, tipo, "error", e.getClass().getSimpleName(), "n/a");
+            throw e;
+        }
+    }
+
+    private void registrarMetricaMarcacion(Timer.Sample sample, String accion, String resultado,
+                                           String motivo, String puntualidad) {
+        sample.stop(Timer.builder("asistencia.marcacion")
+                .description("Check-in / check-out individuales")
+                .tags("accion", accion, "resultado", resultado, "motivo", motivo, "puntualidad", puntualidad)
+                .register(meterRegistry));
+    }
+
+    private Marcacion marcar(String username, String accion) {
         User usuario = userRepo.getByUserName(username)
                 .filter(User::isEnabled)
-                .orElseThrow(() -> new ValidatedRequestException("Usuario no encontrado o inactivo"));
-
-        logger.info("Usuario encontrado - ID: {}, Username: {}", usuario.getId(), usuario.getUsername());
-
-        LocalDate hoy = LocalDate.now();
-        LocalDateTime ahora = LocalDateTime.now();
-        
-        logger.info("Fecha de hoy: {}", hoy);
-        logger.info("Hora actual: {}", ahora);
-        
-        List<Asistencia> todasAsistencias = asistenciaRepo.findAll();
-        logger.info("Total de asistencias en BD: {}", todasAsistencias.size());
-        
-        List<Asistencia> asistenciasHoy = todasAsistencias.stream()
-                .filter(a -> {
-                    boolean esDelUsuario = a.getUsuario().getId().equals(usuario.getId());
-                    boolean esFechaHoy = a.getFechaRegistro() != null && a.getFechaRegistro().equals(hoy);
-                    
-                    if (esDelUsuario) {
-                        logger.info("Asistencia encontrada - ID: {}, FechaRegistro: {}, Entrada: {}, Salida: {}", 
-                                   a.getId(), a.getFechaRegistro(), a.getEntrada(), a.getSalida());
-                    }
-                    
-                    return esDelUsuario && esFechaHoy;
-                })
-                .sorted((a1, a2) -> {
-                    if (a1.getEntrada() == null) return 1;
-                    if (a2.getEntrada() == null) return -1;
-                    return a2.getEntrada().compareTo(a1.getEntrada());
-                })
-                .collect(Collectors.toList());
-        
-        logger.info("Asistencias de hoy encontradas: {}", asistenciasHoy.size());
-        
-        Asistencia ultima = asistenciasHoy.isEmpty() ? null : asistenciasHoy.get(0);
-        
-        if (ultima != null) {
-            logger.info("✅ Última asistencia - ID: {}, Entrada: {}, Salida: {}, Estado: {}", 
-                       ultima.getId(), ultima.getEntrada(), ultima.getSalida(), ultima.getEstado());
-        } else {
-            logger.info("⚠️ No se encontró asistencia de hoy");
-        }
+                .orElseThrow(() -> new MarcacionRechazada("usuario_inactivo", "Usuario no encontrado o inactivo"));
+
+        // Precision de la columna TIMESTAMP: el registro de presencia compara con lo leido de BD
+        LocalDateTime ahora = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        LocalDate hoy = ahora.toLocalDate();
+
+        Asistencia ultima = asistenciaRepo.findUltimaDelDia(usuario.getId(), hoy, Limit.of(1)).stream()
+                .findFirst()
+                .orElse(null);
 
         if ("CHECKIN".equalsIgnoreCase(accion)) {
-            logger.info("📍 Procesando CHECK-IN...");
-            
             if (ultima != null && ultima.getSalida() == null) {
-                logger.warn("⚠️ Ya existe check-in sin cerrar - ID: {}", ultima.getId());
-                throw new ValidatedRequestException("Ya tienes un check-in sin cerrar hoy");
+                logger.warn("Check-in sin cerrar - Usuario: {}, ID: {}", username, ultima.getId());
+                throw new MarcacionRechazada("checkin_abierto", "Ya tienes un check-in sin cerrar hoy");
             }
 
             Asistencia nueva = Asistencia.builder()
@@ -107,182 +140,403 @@ public class AsistenciaServiceImpl implements IAsistenciaService {
                     .estado("EN_OFICINA")
                     .build();
 
-            Asistencia guardada = asistenciaRepo.save(nueva);
-            asistenciaRepo.flush();
-            
-            logger.info("✅ CHECK-IN guardado - ID: {}", guardada.getId());
-            
-            Asistencia verificacion = asistenciaRepo.findById(guardada.getId()).orElse(null);
-            if (verificacion != null) {
-                logger.info("✅ VERIFICACIÓN: Registro encontrado en BD");
-                logger.info("   ID: {}, Entrada: {}, FechaRegistro: {}", 
-                           verificacion.getId(), verificacion.getEntrada(), verificacion.getFechaRegistro());
-            } else {
-                logger.error("❌ VERIFICACIÓN: NO se encontró el registro en BD");
-            }
-            if (ahora.toLocalTime().isAfter(HORA_LIMITE_TARDANZA)) {
-                logger.info("⏰ Tardanza detectada");
-                Justificacion tardanza = Justificacion.builder()
-                        .usuario(usuario)
-                        .fecha(hoy)
-                        .tipo("TARDANZA")
-                        .motivo("Llegada después de las 09:10 - Sistema automático")
-                        .estado("PENDIENTE")
-                        .build();
-                justificacionRepo.save(tardanza);
-            }
+            asistenciaRepo.save(nueva);
+            outboxService.registrarCheckin(nueva, ultima == null);
+            auditoriaService.registrarAsistencia(nueva, "CHECKIN");
+            presenciaService.registrarEntrada(usuario.getId(), usuario.getUsername(), ahora);
+            logger.info("CHECK-IN - Usuario: {}, ID: {}", username, nueva.getId());
 
-            return "Check-in registrado correctamente";
+            boolean tarde = ahora.toLocalTime().isAfter(HORA_LIMITE_TARDANZA);
+            return new Marcacion("Check-in registrado correctamente", tarde ? "tarde" : "puntual");
         }
 
         if ("CHECKOUT".equalsIgnoreCase(accion)) {
-            logger.info("📍 Procesando CHECK-OUT...");
-            
             if (ultima == null) {
-                logger.error("❌❌❌ NO SE ENCONTRÓ CHECK-IN DE HOY ❌❌❌");
-                logger.error("   Usuario ID: {}", usuario.getId());
-                logger.error("   Fecha buscada: {}", hoy);
-                logger.error("   Total asistencias del usuario en BD: {}", 
-                           todasAsistencias.stream()
-                               .filter(a -> a.getUsuario().getId().equals(usuario.getId()))
-                               .count());
-                
-                todasAsistencias.stream()
-                    .filter(a -> a.getUsuario().getId().equals(usuario.getId()))
-                    .forEach(a -> {
-                        logger.error("   → ID: {}, FechaRegistro: {}, Entrada: {}, Salida: {}, Estado: {}", 
-                                   a.getId(), a.getFechaRegistro(), a.getEntrada(), a.getSalida(), a.getEstado());
-                    });
-                
-                throw new ValidatedRequestException("No tienes check-in abierto hoy");
+                logger.warn("Check-out sin check-in - Usuario: {}, Fecha: {}", username, hoy);
+                throw new MarcacionRechazada("sin_checkin", "No tienes check-in abierto hoy");
             }
-            
+
             if (ultima.getSalida() != null) {
-                logger.warn("⚠️ Ya tiene salida: {}", ultima.getSalida());
-                throw new ValidatedRequestException("Ya registraste tu salida hoy");
+                throw new MarcacionRechazada("salida_registrada", "Ya registraste tu salida hoy");
             }
 
-            logger.info("✅ Actualizando registro ID: {}", ultima.getId());
-            logger.info("   Estado actual: {}", ultima.getEstado());
-            logger.info("   Entrada: {}", ultima.getEntrada());
-            logger.info("   Salida actual: {}", ultima.getSalida());
-            
             ultima.setSalida(ahora);
             ultima.setEstado("COMPLETADO");
-            
-            Asistencia actualizada = asistenciaRepo.save(ultima);
-            asistenciaRepo.flush();
-            
-            logger.info("✅ CHECK-OUT guardado exitosamente");
-            logger.info("   ID: {}", actualizada.getId());
-            logger.info("   Salida: {}", actualizada.getSalida());
-            logger.info("   Estado: {}", actualizada.getEstado());
-            
-            Asistencia verificacion = asistenciaRepo.findById(actualizada.getId()).orElse(null);
-            if (verificacion != null) {
-                logger.info("✅ VERIFICACIÓN: Salida registrada en BD: {}", verificacion.getSalida());
+            outboxService.registrarCheckout(ultima);
+            auditoriaService.registrarAsistencia(ultima, "CHECKOUT");
+            presenciaService.registrarSalida(usuario.getId(), usuario.getUsername(), ultima.getEntrada(), ahora);
+            logger.info("CHECK-OUT - Usuario: {}, ID: {}", username, ultima.getId());
+
+            return new Marcacion("Check-out registrado correctamente", "n/a");
+        }
+
+        throw new MarcacionRechazada("accion_invalida", "Acción no válida");
+    }
+
+    private record Marcacion(String mensaje, String puntualidad) {
+    }
+
+    // Rechazo de negocio con un motivo acotado para la etiqueta de la metrica.
+    // @ResponseStatus no se hereda: se repite para conservar el codigo de ValidatedRequestException
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    private static final class MarcacionRechazada extends ValidatedRequestException {
+        private final String motivo;
+
+        MarcacionRechazada(String motivo, String mensaje) {
+            super(mensaje);
+            this.motivo = motivo;
+        }
+    }
+
+    @Override
+    @PreAuthorize("hasAnyRole('ADMIN', 'KIOSCO')")
+    public List<EventoAsistenciaResultadoDto> registrarLote(List<EventoAsistenciaDto> eventos) {
+        EventoAsistenciaResultadoDto[] resultados = new EventoAsistenciaResultadoDto[eventos.size()];
+        Asistencia[] afectadas = new Asistencia[eventos.size()];
+        List<Integer> validos = new ArrayList<>();
+        LocalDateTime limiteFuturo = LocalDateTime.now().plus(TOLERANCIA_RELOJ);
+
+        for (int i = 0; i < eventos.size(); i++) {
+            EventoAsistenciaDto evento = eventos.get(i);
+            resultados[i] = EventoAsistenciaResultadoDto.builder()
+                    .indice(i)
+                    .username(evento.getUsername())
+                    .accion(evento.getAccion())
+                    .timestamp(evento.getTimestamp())
+                    .build();
+            // Los eventos invalidos se informan en su resultado sin rechazar el lote completo
+            if (evento.getTimestamp() == null || evento.getUsername() == null || evento.getUsername().isBlank()) {
+                resultados[i].setMensaje("Evento incompleto");
+            } else if (!"CHECKIN".equalsIgnoreCase(evento.getAccion()) && !"CHECKOUT".equalsIgnoreCase(evento.getAccion())) {
+                resultados[i].setMensaje("Acción no válida");
+            } else if (evento.getTimestamp().isAfter(limiteFuturo)) {
+                // Una entrada futura abriria la sesion antes de tiempo y bloquearia el check-in real
+                resultados[i].setMensaje("El evento es posterior a la hora actual");
             } else {
-                logger.error("❌ VERIFICACIÓN: NO se encontró el registro actualizado");
+                validos.add(i);
             }
-            
-            return "Check-out registrado correctamente";
         }
 
-        throw new ValidatedRequestException("Acción no válida");
+        // Los periodos archivados estan cerrados: sus sesiones ya no estan en ASISTENCIA
+        LocalDate limiteArchivo = archivoService.getLimiteArchivo();
+        validos.removeIf(i -> {
+            boolean cerrado = eventos.get(i).getTimestamp().toLocalDate().isBefore(limiteArchivo);
+            if (cerrado) {
+                resultados[i].setMensaje("El periodo ya está cerrado");
+            }
+            return cerrado;
+        });
+
+        if (validos.isEmpty()) {
+            registrarMetricaLote(resultados);
+            return List.of(resultados);
+        }
+
+        // Una sola consulta para los usuarios y otra para sus sesiones en el rango del lote
+        Set<String> usernames = new HashSet<>();
+        LocalDate desde = LocalDate.MAX;
+        LocalDate hasta = LocalDate.MIN;
+        for (int i : validos) {
+            EventoAsistenciaDto evento = eventos.get(i);
+            usernames.add(evento.getUsername());
+            LocalDate fecha = evento.getTimestamp().toLocalDate();
+            desde = fecha.isBefore(desde) ? fecha : desde;
+            hasta = fecha.isAfter(hasta) ? fecha : hasta;
+        }
+
+        Map<String, User> usuarios = new HashMap<>();
+        for (User usuario : userRepo.findByUsernameIn(usernames)) {
+            usuarios.put(usuario.getUsername(), usuario);
+        }
+
+        Map<SesionKey, Asistencia> ultimas = new HashMap<>();
+        if (!usuarios.isEmpty()) {
+            List<Long> usuarioIds = usuarios.values().stream().map(User::getId).toList();
+            for (Asistencia a : asistenciaRepo.findByUsuariosYRango(usuarioIds, desde, hasta)) {
+                ultimas.merge(new SesionKey(a.getUsuario().getId(), a.getFechaRegistro()), a,
+                        (actual, otra) -> actual.getEntrada() == null
+                                || (otra.getEntrada() != null && otra.getEntrada().isAfter(actual.getEntrada())) ? otra : actual);
+            }
+        }
+
+        validos.sort(Comparator.comparing((Integer i) -> eventos.get(i).getTimestamp()).thenComparing(i -> i));
+
+        List<Asistencia> nuevas = new ArrayList<>();
+        List<Asistencia> cerradas = new ArrayList<>();
+        Set<Asistencia> primerasDelDia = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        for (int i : validos) {
+            EventoAsistenciaDto evento = eventos.get(i);
+            EventoAsistenciaResultadoDto resultado = resultados[i];
+            User usuario = usuarios.get(evento.getUsername());
+            if (usuario == null || !usuario.isEnabled()) {
+                resultado.setMensaje("Usuario no encontrado o inactivo");
+                continue;
+            }
+
+            LocalDateTime momento = evento.getTimestamp().truncatedTo(ChronoUnit.MICROS);
+            SesionKey key = new SesionKey(usuario.getId(), momento.toLocalDate());
+            Asistencia ultima = ultimas.get(key);
+
+            if ("CHECKIN".equalsIgnoreCase(evento.getAccion())) {
+                if (ultima != null && ultima.getSalida() == null) {
+                    resultado.setMensaje("Ya tiene un check-in sin cerrar ese día");
+                    continue;
+                }
+                if (ultima != null && momento.isBefore(ultima.getSalida())) {
+                    resultado.setMensaje("El evento es anterior al último registro del día");
+                    continue;
+                }
+
+                Asistencia nueva = Asistencia.builder()
+                        .usuario(usuario)
+                        .entrada(momento)
+                        .fechaRegistro(key.fecha())
+                        .estado("EN_OFICINA")
+                        .build();
+                nuevas.add(nueva);
+                ultimas.put(key, nueva);
+                afectadas[i] = nueva;
+
+                if (ultima == null) {
+                    primerasDelDia.add(nueva);
+                }
+                presenciaService.registrarEntrada(usuario.getId(), usuario.getUsername(), momento);
+                resultado.setMensaje("Check-in registrado correctamente");
+            } else {
+                if (ultima == null) {
+                    resultado.setMensaje("No tiene check-in abierto ese día");
+                    continue;
+                }
+                if (ultima.getSalida() != null) {
+                    resultado.setMensaje("Ya registró su salida ese día");
+                    continue;
+                }
+                if (momento.isBefore(ultima.getEntrada())) {
+                    resultado.setMensaje("La salida es anterior a la entrada");
+                    continue;
+                }
+
+                ultima.setSalida(momento);
+                ultima.setEstado("COMPLETADO");
+                cerradas.add(ultima);
+                afectadas[i] = ultima;
+                presenciaService.registrarSalida(usuario.getId(), usuario.getUsername(), ultima.getEntrada(), momento);
+                resultado.setMensaje("Check-out registrado correctamente");
+            }
+            resultado.setExito(true);
+        }
+
+        asistenciaRepo.saveAll(nuevas);
+        for (Asistencia nueva : nuevas) {
+            outboxService.registrarCheckin(nueva, primerasDelDia.contains(nueva));
+            auditoriaService.registrarAsistencia(nueva, "CHECKIN");
+        }
+        for (Asistencia cerrada : cerradas) {
+            outboxService.registrarCheckout(cerrada);
+            auditoriaService.registrarAsistencia(cerrada, "CHECKOUT");
+        }
+
+        for (int i = 0; i < resultados.length; i++) {
+            if (afectadas[i] != null) {
+                resultados[i].setAsistenciaId(afectadas[i].getId());
+            }
+        }
+
+        long aplicados = registrarMetricaLote(resultados);
+        logger.info("LOTE - Eventos: {}, Aplicados: {}", eventos.size(), aplicados);
+        return List.of(resultados);
     }
 
-    @Override
-    public List<AsistenciaResponseDto> getHistorial(String username) {
-        User usuario = userRepo.getByUserName(username)
-                .orElseThrow(() -> new ValidatedRequestException("Usuario no encontrado"));
+    // Un lote revertido no ha aplicado nada: se cuenta al confirmarse
+    private long registrarMetricaLote(EventoAsistenciaResultadoDto[] resultados) {
+        long aplicados = Arrays.stream(resultados).filter(EventoAsistenciaResultadoDto::isExito).count();
+        despuesDelCommit(() -> {
+            meterRegistry.counter("asistencia.lote.eventos", "resultado", "aplicado").increment(aplicados);
+            meterRegistry.counter("asistencia.lote.eventos", "resultado", "rechazado").increment(resultados.length - aplicados);
+        });
+        return aplicados;
+    }
 
-        return asistenciaRepo.findAll().stream()
-                .filter(a -> a.getUsuario().getId().equals(usuario.getId()))
-                .map(asistenciaMapper::toDto)
-                .collect(Collectors.toList());
+    private void despuesDelCommit(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+
+    private record SesionKey(Long usuarioId, LocalDate fecha) {
     }
 
     @Override
-    public JustificacionResponseDto solicitarJustificacion(String username, JustificacionRequestDto dto) {
-        User usuario = userRepo.getByUserName(username)
+    @Transactional(readOnly = true)
+    public CursorPageModel<AsistenciaResponseDto> getHistorial(String username, PaginationModel paginationModel) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Long usuarioId = userRepo.findIdByUsername(username)
                 .orElseThrow(() -> new ValidatedRequestException("Usuario no encontrado"));
 
-        if (dto.getFecha() == null) {
-            throw new ValidatedRequestException("La fecha es obligatoria");
+        int rowsPerPage = paginationModel.getRowsPerPage() != null
+                ? Math.clamp(paginationModel.getRowsPerPage(), 1, MAX_ROWS_PER_PAGE)
+                : DEFAULT_ROWS_PER_PAGE;
+        Limit limit = Limit.of(rowsPerPage + 1);
+
+        List<AsistenciaView> filas;
+        boolean primeraPagina = paginationModel.getCursor() == null || paginationModel.getCursor().isBlank();
+        HistorialCursor cursor = primeraPagina ? null : HistorialCursor.decode(paginationModel.getCursor());
+        if (primeraPagina) {
+            filas = asistenciaRepo.findHistorial(usuarioId, limit);
+        } else {
+            filas = asistenciaRepo.findHistorialDespuesDe(usuarioId, cursor.fecha(), cursor.id(), limit);
+        }
+
+        // El archivo solo guarda fechas anteriores al limite: se consulta si la pagina puede llegar a ellas
+        LocalDate limiteArchivo = archivoService.getLimiteArchivo();
+        if (filas.size() < limit.max() || filas.get(filas.size() - 1).fechaRegistro().isBefore(limiteArchivo)) {
+            List<AsistenciaView> archivadas = primeraPagina
+                    ? historicoRepo.findHistorial(usuarioId, limit)
+                    : historicoRepo.findHistorialDespuesDe(usuarioId, cursor.fecha(), cursor.id(), limit);
+            List<AsistenciaView> combinadas = new ArrayList<>(filas.size() + archivadas.size());
+            mezclar(filas.iterator(), archivadas.iterator(), ORDEN_HISTORIAL, combinadas::add);
+            filas = combinadas.subList(0, Math.min(combinadas.size(), limit.max()));
         }
-        
-        if (dto.getMotivo() == null || dto.getMotivo().trim().isEmpty()) {
-            throw new ValidatedRequestException("El motivo es obligatorio");
+
+        boolean hasNext = filas.size() > rowsPerPage;
+        List<AsistenciaView> pagina = hasNext ? filas.subList(0, rowsPerPage) : filas;
+        String nextCursor = null;
+        if (hasNext) {
+            AsistenciaView ultima = pagina.get(pagina.size() - 1);
+            nextCursor = new HistorialCursor(ultima.fechaRegistro(), ultima.id()).encode();
         }
-        
-        if (dto.getMotivo().length() < 10) {
-            throw new ValidatedRequestException("El motivo debe tener al menos 10 caracteres");
+
+        CursorPageModel<AsistenciaResponseDto> resultado = new CursorPageModel<>(
+                asistenciaMapper.toDtoList(pagina, username), rowsPerPage, nextCursor, hasNext);
+        sample.stop(meterRegistry.timer("asistencia.historial", "pagina", primeraPagina ? "primera" : "siguiente"));
+        return resultado;
+    }
+
+    private record HistorialCursor(LocalDate fecha, Long id) {
+
+        String encode() {
+            String valor = fecha + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
         }
 
-        String tipo = (dto.getTipo() != null && !dto.getTipo().trim().isEmpty()) 
-                    ? dto.getTipo().toUpperCase() 
-                    : "TARDANZA";
-        
-        if (!tipo.equals("TARDANZA") && !tipo.equals("AUSENCIA")) {
-            throw new ValidatedRequestException("Tipo inválido. Use TARDANZA o AUSENCIA");
+        static HistorialCursor decode(String token) {
+            try {
+                String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separador = valor.indexOf(':');
+                return new HistorialCursor(LocalDate.parse(valor.substring(0, separador)),
+                        Long.valueOf(valor.substring(separador + 1)));
+            } catch (RuntimeException e) {
+                throw new BadRequestException("Cursor de paginación inválido");
+            }
         }
+    }
 
-        Justificacion justificacion = Justificacion.builder()
-                .usuario(usuario)
-                .fecha(dto.getFecha())
-                .tipo(tipo)
-                .motivo(dto.getMotivo().trim())
-                .estado("PENDIENTE")
-                .fechaSolicitud(LocalDateTime.now())
-                .build();
-
-        justificacionRepo.save(justificacion);
-
-        return JustificacionResponseDto.builder()
-                .id(justificacion.getId())
-                .username(usuario.getUsername())
-                .fecha(justificacion.getFecha())
-                .tipo(justificacion.getTipo())
-                .motivo(justificacion.getMotivo())
-                .estado(justificacion.getEstado())
-                .fechaSolicitud(justificacion.getFechaSolicitud()
-                        .format(DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm")))
-                .build();
+    @Override
+    public JustificacionResponseDto solicitarJustificacion(String username, JustificacionRequestDto dto) {
+        return justificacionService.solicitarJustificacion(username, dto);
     }
 
     @Override
     @PreAuthorize("hasRole('ADMIN')")
-    public List<Justificacion> getJustificacionesPendientes() {
-        return justificacionRepo.findByEstado("PENDIENTE");
+    public List<JustificacionAdminResponseDto> getJustificacionesPendientes() {
+        return justificacionService.getJustificacionesPendientes();
     }
 
     @Override
     @PreAuthorize("hasRole('ADMIN')")
     public String aprobarJustificacion(Long id) {
-        Justificacion j = justificacionRepo.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Justificación no encontrada"));
-
-        if (!"PENDIENTE".equals(j.getEstado())) {
-            throw new ValidatedRequestException("Esta justificación ya fue procesada");
-        }
-
-        j.setEstado("APROBADO");
-        justificacionRepo.save(j);
-        return "Justificación aprobada correctamente";
+        return justificacionService.aprobarJustificacion(id);
     }
     
     @Override
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional(readOnly = true)
     public List<AsistenciaResponseDto> reportePorRangoFechas(LocalDate desde, LocalDate hasta) {
-        return asistenciaRepo.findAll().stream()
-            .filter(asistencia -> {
-                if (asistencia.getFechaRegistro() == null) {
-                    return false;
+        validarRango(desde, hasta);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<AsistenciaView> filas = asistenciaRepo.findReporteRango(desde, hasta);
+        if (requiereArchivo(desde)) {
+            List<AsistenciaView> combinadas = new ArrayList<>();
+            mezclar(historicoRepo.findReporteRango(desde, hasta).iterator(), filas.iterator(), ORDEN_REPORTE, combinadas::add);
+            filas = combinadas;
+        }
+        List<AsistenciaResponseDto> reporte = asistenciaMapper.toDtoList(filas);
+        registrarMetricaReporte(sample, "json", reporte.size());
+        return reporte;
+    }
+
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    @Transactional(readOnly = true)
+    public void exportarReportePorRangoFechas(LocalDate desde, LocalDate hasta,
+                                              Consumer<AsistenciaResponseDto> consumidor) {
+        validarRango(desde, hasta);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long[] exportadas = {0};
+        // Proyeccion: nada queda en el contexto de persistencia, no hace falta detach por fila
+        Consumer<AsistenciaView> exportar = vista -> {
+            consumidor.accept(asistenciaMapper.toResponseDto(vista));
+            exportadas[0]++;
+        };
+        try (Stream<AsistenciaView> filas = asistenciaRepo.streamReporteRango(desde, hasta)) {
+            if (requiereArchivo(desde)) {
+                try (Stream<AsistenciaView> archivadas = historicoRepo.streamReporteRango(desde, hasta)) {
+                    mezclar(archivadas.iterator(), filas.iterator(), ORDEN_REPORTE, exportar);
                 }
-                return !asistencia.getFechaRegistro().isBefore(desde) && 
-                       !asistencia.getFechaRegistro().isAfter(hasta);
-            })
-            .map(asistenciaMapper::toDto)
-            .collect(Collectors.toList());
+            } else {
+                filas.forEach(exportar);
+            }
+        }
+        registrarMetricaReporte(sample, "ndjson", exportadas[0]);
+    }
+
+    @Override
+    @PreAuthorize("hasRole('ADMIN')")
+    @Transactional(readOnly = true)
+    public void exportarResumenPorRangoFechas(LocalDate desde, LocalDate hasta,
+                                              Consumer<ResumenAsistenciaView> consumidor) {
+        validarRango(desde, hasta);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long filas = reporteRepo.streamResumenRango(desde, hasta, requiereArchivo(desde), consumidor);
+        registrarMetricaReporte(sample, "resumen", filas);
+    }
+
+    private boolean requiereArchivo(LocalDate desde) {
+        return desde.isBefore(archivoService.getLimiteArchivo());
+    }
+
+    // Mezcla dos secuencias ya ordenadas (tabla viva y archivo) sin materializarlas
+    private static void mezclar(Iterator<AsistenciaView> a, Iterator<AsistenciaView> b,
+                                Comparator<AsistenciaView> orden, Consumer<AsistenciaView> consumidor) {
+        AsistenciaView siguienteA = a.hasNext() ? a.next() : null;
+        AsistenciaView siguienteB = b.hasNext() ? b.next() : null;
+        while (siguienteA != null || siguienteB != null) {
+            if (siguienteB == null || (siguienteA != null && orden.compare(siguienteA, siguienteB) <= 0)) {
+                consumidor.accept(siguienteA);
+                siguienteA = a.hasNext() ? a.next() : null;
+            } else {
+                consumidor.accept(siguienteB);
+                siguienteB = b.hasNext() ? b.next() : null;
+            }
+        }
+    }
+
+    private void registrarMetricaReporte(Timer.Sample sample, String formato, long filas) {
+        sample.stop(meterRegistry.timer("asistencia.reporte", "formato", formato));
+        meterRegistry.summary("asistencia.reporte.filas", "formato", formato).record(filas);
+    }
+
+    private void validarRango(LocalDate desde, LocalDate hasta) {
+        if (desde.isAfter(hasta)) {
+            throw new BadRequestException("La fecha 'desde' no puede ser posterior a 'hasta'");
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,248 @@
+package com.indra.asistencia.service.impl;
+
+import com.indra.asistencia.models.Asistencia;
+import com.indra.asistencia.models.Justificacion;
+import com.indra.asistencia.models.LogAsistencia;
+import com.indra.asistencia.models.LogJustificacion;
+import com.indra.asistencia.repository.AuditoriaRepository;
+import com.indra.asistencia.service.IAuditoriaService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Auditoria de marcaciones y justificaciones fuera de la transaccion de negocio (sustituye a
+ * los triggers trg_log_asistencia y trg_log_justificacion). Cada evento toma la IP y el usuario
+ * de la peticion en curso, se encola tras el commit en una cola acotada y se escribe en lotes
+ * JDBC cada app.auditoria.intervalo. Con la cola llena el evento se descarta y se cuenta.
+ * Un lote que falla al escribirse se conserva y se reintenta en las pasadas siguientes,
+ * hasta app.auditoria.reintentos; despues se descarta y se cuenta.
+ */
+@Service
+public class AuditoriaServiceImpl implements IAuditoriaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditoriaServiceImpl.class);
+
+    private final AuditoriaRepository auditoriaRepo;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final Canal<LogAsistencia> logsAsistencia;
+    private final Canal<LogJustificacion> logsJustificacion;
+    // Un solo vaciado a la vez (programado y @PreDestroy); synchronized fijaria el hilo virtual durante la escritura JDBC
+    private final ReentrantLock vaciado = new ReentrantLock();
+    private final int tamanioLote;
+    private final int maxReintentos;
+    private final Duration retencion;
+    private final int tamanioTrozoPurga;
+
+    public AuditoriaServiceImpl(AuditoriaRepository auditoriaRepo,
+                                MeterRegistry meterRegistry,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.auditoria.capacidad:10000}") int capacidad,
+                                @Value("${app.auditoria.lote:500}") int tamanioLote,
+                                @Value("${app.auditoria.reintentos:5}") int maxReintentos,
+                                @Value("${app.auditoria.retencion:P180D}") Duration retencion,
+                                @Value("${app.auditoria.purga.lote:5000}") int tamanioTrozoPurga) {
+        this.auditoriaRepo = auditoriaRepo;
+        this.meterRegistry = meterRegistry;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.logsAsistencia = new Canal<>("asistencia", new ArrayBlockingQueue<>(capacidad),
+                auditoriaRepo::insertarLogsAsistencia);
+        this.logsJustificacion = new Canal<>("justificacion", new ArrayBlockingQueue<>(capacidad),
+                auditoriaRepo::insertarLogsJustificacion);
+        this.tamanioLote = Math.max(tamanioLote, 1);
+        this.maxReintentos = Math.max(maxReintentos, 1);
+        this.retencion = retencion;
+        this.tamanioTrozoPurga = Math.max(tamanioTrozoPurga, 1);
+        meterRegistry.gaugeCollectionSize("auditoria.cola", Tags.of("tipo", "asistencia"), logsAsistencia.cola);
+        meterRegistry.gaugeCollectionSize("auditoria.cola", Tags.of("tipo", "justificacion"), logsJustificacion.cola);
+    }
+
+    @Override
+    public void registrarAsistencia(Asistencia asistencia, String accion) {
+        String usuario = usuarioActual();
+        String detalle = "CHECKIN".equals(accion) ? "Check-in registrado" : "Check-out registrado";
+        LogAsistencia log = LogAsistencia.builder()
+                .usuarioId(asistencia.getUsuario().getId())
+                .accion(accion)
+                .fechaHora(LocalDateTime.now())
+                .ipAddress(ipCliente())
+                .detalle(usuario != null ? detalle + " por " + usuario : detalle)
+                .build();
+        encolarTrasCommit(logsAsistencia, log);
+    }
+
+    @Override
+    public void registrarJustificacion(Justificacion justificacion, String accion, String estadoAnterior) {
+        LogJustificacion log = LogJustificacion.builder()
+                .justificacionId(justificacion.getId())
+                .accion(accion)
+                .usuarioAdmin("APROBACION".equals(accion) ? usuarioActual() : null)
+                .fechaHora(LocalDateTime.now())
+                .estadoAnterior(estadoAnterior)
+                .estadoNuevo(justificacion.getEstado())
+                .build();
+        encolarTrasCommit(logsJustificacion, log);
+    }
+
+    // Una operacion revertida no deja auditoria, igual que con los triggers
+    private <T> void encolarTrasCommit(Canal<T> canal, T log) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            encolar(canal, log);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                encolar(canal, log);
+            }
+        });
+    }
+
+    private <T> void encolar(Canal<T> canal, T log) {
+        if (!canal.cola.offer(log)) {
+            meterRegistry.counter("auditoria.eventos", "tipo", canal.tipo, "resultado", "descartado").increment();
+            logger.warn("Auditoria - cola de {} llena, evento descartado: {}", canal.tipo, log);
+        }
+    }
+
+    private String ipCliente() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes atributos) {
+            return atributos.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+
+    private String usuarioActual() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.isAuthenticated() ? auth.getName() : null;
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.auditoria.intervalo:PT1S}")
+    public int vaciar() {
+        vaciado.lock();
+        try {
+            return vaciar(logsAsistencia) + vaciar(logsJustificacion);
+        } finally {
+            vaciado.unlock();
+        }
+    }
+
+    private <T> int vaciar(Canal<T> canal) {
+        int escritos = 0;
+        // Primero el lote que fallo en una pasada anterior, para conservar el orden
+        if (!canal.fallido.isEmpty()) {
+            List<T> pendiente = canal.fallido;
+            if (!escribir(canal, pendiente)) {
+                return 0;
+            }
+            escritos += pendiente.size();
+        }
+        List<T> lote = new ArrayList<>(tamanioLote);
+        while (canal.cola.drainTo(lote, tamanioLote) > 0) {
+            if (!escribir(canal, lote)) {
+                // El resto sigue en la cola hasta la siguiente pasada
+                return escritos;
+            }
+            escritos += lote.size();
+            lote = new ArrayList<>(tamanioLote);
+        }
+        return escritos;
+    }
+
+    // Cada lote en su transaccion: si falla no queda escrito a medias y el reintento no duplica filas.
+    // Cualquier RuntimeException cuenta como intento: si escapara, el lote ya sacado de la cola se perderia
+    // sin contarse y el otro canal no se vaciaria en esa pasada
+    private <T> boolean escribir(Canal<T> canal, List<T> lote) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> canal.escritor.accept(lote));
+        } catch (RuntimeException e) {
+            canal.intentos++;
+            meterRegistry.counter("auditoria.eventos", "tipo", canal.tipo, "resultado", "error").increment(lote.size());
+            if (canal.intentos < maxReintentos) {
+                canal.fallido = lote;
+                logger.warn("Auditoria - intento {} de {} fallido para un lote de {} eventos de {}: {}",
+                        canal.intentos, maxReintentos, lote.size(), canal.tipo, e.getMessage());
+                return false;
+            }
+            meterRegistry.counter("auditoria.eventos", "tipo", canal.tipo, "resultado", "descartado").increment(lote.size());
+            logger.error("Auditoria - lote de {} eventos de {} descartado tras {} intentos",
+                    lote.size(), canal.tipo, canal.intentos, e);
+            canal.fallido = List.of();
+            canal.intentos = 0;
+            return false;
+        }
+        meterRegistry.counter("auditoria.eventos", "tipo", canal.tipo, "resultado", "escrito").increment(lote.size());
+        canal.fallido = List.of();
+        canal.intentos = 0;
+        return true;
+    }
+
+    @PreDestroy
+    public void detener() {
+        vaciar();
+    }
+
+    @Override
+    @Scheduled(cron = "${app.auditoria.purga.cron:0 0 4 * * *}")
+    public int purgar() {
+        LocalDateTime limite = LocalDateTime.now().minus(retencion);
+        int total = purgarPorTrozos(trozo -> auditoriaRepo.purgarLogsAsistencia(limite, trozo))
+                + purgarPorTrozos(trozo -> auditoriaRepo.purgarLogsJustificacion(limite, trozo));
+
+        meterRegistry.counter("auditoria.purga.filas").increment(total);
+        if (total > 0) {
+            logger.info("Auditoria - {} filas de log anteriores a {} purgadas", total, limite);
+        }
+        return total;
+    }
+
+    private int purgarPorTrozos(IntUnaryOperator purgarTrozo) {
+        int total = 0;
+        int borradas;
+        do {
+            borradas = purgarTrozo.applyAsInt(tamanioTrozoPurga);
+            total += borradas;
+        } while (borradas == tamanioTrozoPurga);
+        return total;
+    }
+
+    // Cola de un tipo de evento y el lote que fallo al escribirse, pendiente de reintento
+    private static final class Canal<T> {
+        private final String tipo;
+        private final BlockingQueue<T> cola;
+        private final Consumer<List<T>> escritor;
+        private List<T> fallido = List.of();
+        private int intentos;
+
+        private Canal(String tipo, BlockingQueue<T> cola, Consumer<List<T>> escritor) {
+            this.tipo = tipo;
+            this.cola = cola;
+            this.escritor = escritor;
+        }
+    }
+}
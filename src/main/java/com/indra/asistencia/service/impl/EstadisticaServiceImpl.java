@@ -0,0 +1,145 @@
+package com.indra.asistencia.service.impl;
+
+import com.indra.asistencia.models.EstadisticaDiaria;
+import com.indra.asistencia.repository.EstadisticaDiariaRepository;
+import com.indra.asistencia.repository.IUserRepository;
+import com.indra.asistencia.repository.JustificacionRepository;
+import com.indra.asistencia.service.IEstadisticaService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Estadisticas del panel de administracion a partir de filas de resumen
+ * diario (ESTADISTICA_DIARIA) que se actualizan de forma incremental.
+ * La fila de cada dia nace vacia y solo el despachador del outbox la
+ * incrementa, de modo que ningun evento se cuenta dos veces.
+ */
+@Service
+@Transactional
+public class EstadisticaServiceImpl implements IEstadisticaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EstadisticaServiceImpl.class);
+
+    private static final List<String> DIAS = List.of("Lun", "Mar", "Mié", "Jue", "Vie", "Sáb", "Dom");
+
+    private final EstadisticaDiariaRepository estadisticaRepo;
+    private final JustificacionRepository justificacionRepo;
+    private final IUserRepository userRepo;
+    private final TransactionTemplate nuevaTransaccion;
+
+    public EstadisticaServiceImpl(EstadisticaDiariaRepository estadisticaRepo,
+                                  JustificacionRepository justificacionRepo,
+                                  IUserRepository userRepo,
+                                  PlatformTransactionManager transactionManager) {
+        this.estadisticaRepo = estadisticaRepo;
+        this.justificacionRepo = justificacionRepo;
+        this.userRepo = userRepo;
+        this.nuevaTransaccion = new TransactionTemplate(transactionManager);
+        this.nuevaTransaccion.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void registrarPrimerasEntradas(Collection<LocalDateTime> entradas) {
+        Map<LocalDate, List<LocalDateTime>> porDia = entradas.stream()
+                .collect(Collectors.groupingBy(LocalDateTime::toLocalDate));
+
+        porDia.forEach((fecha, delDia) -> {
+            int tardanzas = (int) delDia.stream().filter(this::esTardanza).count();
+            if (estadisticaRepo.registrarPresentes(fecha, delDia.size(), delDia.size() - tardanzas, tardanzas) == 0) {
+                asegurarDia(fecha);
+                estadisticaRepo.registrarPresentes(fecha, delDia.size(), delDia.size() - tardanzas, tardanzas);
+            }
+        });
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 0 * * *")
+    public void prepararDia() {
+        asegurarDia(LocalDate.now());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getEstadisticas() {
+        LocalDate hoy = LocalDate.now();
+        LocalDate lunes = hoy.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+
+        int[] asistenciasPorDia = new int[DIAS.size()];
+        int presentesHoy = 0;
+        int puntuales = 0;
+        int tardanzas = 0;
+        int ausencias = 0;
+
+        for (EstadisticaDiaria dia : estadisticaRepo.findByFechaBetweenOrderByFecha(lunes, hoy)) {
+            asistenciasPorDia[dia.getFecha().getDayOfWeek().getValue() - 1] = dia.getPresentes();
+            puntuales += dia.getPuntuales();
+            tardanzas += dia.getTardanzas();
+            if (dia.getFecha().getDayOfWeek().getValue() <= DayOfWeek.FRIDAY.getValue()) {
+                ausencias += dia.getAusentes();
+            }
+            if (dia.getFecha().equals(hoy)) {
+                presentesHoy = dia.getPresentes();
+            }
+        }
+
+        List<Integer> serie = new ArrayList<>(DIAS.size());
+        for (int total : asistenciasPorDia) {
+            serie.add(total);
+        }
+
+        Map<String, Object> estadisticas = new HashMap<>();
+        estadisticas.put("totalEmpleados", userRepo.countByEnabledTrue());
+        estadisticas.put("presentesHoy", presentesHoy);
+        estadisticas.put("justificacionesPendientes", justificacionRepo.countByEstado("PENDIENTE"));
+        estadisticas.put("porcentajePuntualidad",
+                puntuales + tardanzas == 0 ? 0 : Math.round(puntuales * 100.0 / (puntuales + tardanzas)));
+        estadisticas.put("dias", DIAS);
+        estadisticas.put("asistenciasPorDia", serie);
+        estadisticas.put("puntuales", puntuales);
+        estadisticas.put("tardanzas", tardanzas);
+        estadisticas.put("ausencias", ausencias);
+        return estadisticas;
+    }
+
+    // Inserta la fila vacia con MERGE en su propia transaccion: si otra instancia (o el prepararDia de medianoche)
+    // la crea a la vez, la clave primaria rechaza el duplicado sin revertir la transaccion del llamante
+    private void asegurarDia(LocalDate fecha) {
+        if (estadisticaRepo.existsById(fecha)) {
+            return;
+        }
+        try {
+            int creadas = nuevaTransaccion.execute(status ->
+                    estadisticaRepo.crearVacia(fecha, (int) userRepo.countByEnabledTrue()));
+            if (creadas > 0) {
+                logger.info("Resumen diario creado - Fecha: {}", fecha);
+            }
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Resumen diario de {} creado por otra transaccion", fecha);
+        }
+    }
+
+    private boolean esTardanza(LocalDateTime entrada) {
+        return entrada.toLocalTime().isAfter(AsistenciaServiceImpl.HORA_LIMITE_TARDANZA);
+    }
+}
@@ -1,14 +1,21 @@
 package com.indra.asistencia.service.impl;
 
+import com.indra.asistencia.dto.JustificacionAdminResponseDto;
 import com.indra.asistencia.dto.JustificacionRequestDto;
 import com.indra.asistencia.dto.JustificacionResponseDto;
+import com.indra.asistencia.dto.JustificacionView;
 import com.indra.asistencia.exception.ResourceNotFoundException;
 import com.indra.asistencia.exception.ValidatedRequestException;
+import com.indra.asistencia.mappers.JustificacionMapper;
 import com.indra.asistencia.models.Justificacion;
 import com.indra.asistencia.models.User;
 import com.indra.asistencia.repository.IUserRepository;
 import com.indra.asistencia.repository.JustificacionRepository;
+import com.indra.asistencia.service.IAuditoriaService;
 import com.indra.asistencia.service.IJustificacionService;
+import com.indra.asistencia.service.IOutboxService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,7 +24,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 @Service
@@ -29,6 +35,10 @@ public class JustificacionServiceImpl implements IJustificacionService {
     
     private final JustificacionRepository justificacionRepo;
     private final IUserRepository userRepo;
+    private final JustificacionMapper justificacionMapper;
+    private final IOutboxService outboxService;
+    private final IAuditoriaService auditoriaService;
+    private final MeterRegistry meterRegistry;
 
     @Override
     public JustificacionResponseDto solicitarJustificacion(String username, JustificacionRequestDto dto) {
@@ -68,28 +78,22 @@ public class JustificacionServiceImpl implements IJustificacionService {
                 .build();
 
         justificacionRepo.save(justificacion);
+        outboxService.registrarJustificacion(justificacion);
+        auditoriaService.registrarJustificacion(justificacion, "CREACION", null);
         
         logger.info("✅ Justificación guardada - ID: {}", justificacion.getId());
 
-        return JustificacionResponseDto.builder()
-                .id(justificacion.getId())
-                .username(usuario.getUsername())
-                .fecha(justificacion.getFecha())
-                .tipo(justificacion.getTipo())
-                .motivo(justificacion.getMotivo())
-                .estado(justificacion.getEstado())
-                .fechaSolicitud(justificacion.getFechaSolicitud()
-                        .format(DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm")))
-                .build();
+        return justificacionMapper.toResponseDto(justificacion);
     }
 
     @Override
     @PreAuthorize("hasRole('ADMIN')")
-    public List<Justificacion> getJustificacionesPendientes() {
+    @Transactional(readOnly = true)
+    public List<JustificacionAdminResponseDto> getJustificacionesPendientes() {
         logger.info("=== OBTENIENDO JUSTIFICACIONES PENDIENTES ===");
-        List<Justificacion> pendientes = justificacionRepo.findByEstado("PENDIENTE");
+        List<JustificacionView> pendientes = justificacionRepo.findVistasByEstado("PENDIENTE");
         logger.info("✅ Encontradas {} justificaciones pendientes", pendientes.size());
-        return pendientes;
+        return justificacionMapper.toAdminDtoList(pendientes);
     }
 
     @Override
@@ -97,35 +101,46 @@ public class JustificacionServiceImpl implements IJustificacionService {
     public String aprobarJustificacion(Long id) {
         logger.info("=== APROBAR JUSTIFICACIÓN ===");
         logger.info("ID: {}", id);
+        Timer.Sample sample = Timer.start(meterRegistry);
         
-        Justificacion justificacion = justificacionRepo.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Justificación no encontrada con ID: " + id));
+        Justificacion justificacion = justificacionRepo.findById(id).orElse(null);
+        if (justificacion == null) {
+            sample.stop(meterRegistry.timer("asistencia.justificacion.aprobacion", "resultado", "no_encontrada"));
+            throw new ResourceNotFoundException("Justificación no encontrada con ID: " + id);
+        }
 
         if (!"PENDIENTE".equals(justificacion.getEstado())) {
+            sample.stop(meterRegistry.timer("asistencia.justificacion.aprobacion", "resultado", "ya_procesada"));
             throw new ValidatedRequestException("Esta justificación ya fue procesada. Estado actual: " + justificacion.getEstado());
         }
 
+        String estadoAnterior = justificacion.getEstado();
         justificacion.setEstado("APROBADO");
         justificacionRepo.save(justificacion);
+        auditoriaService.registrarJustificacion(justificacion, "APROBACION", estadoAnterior);
+        // Estadisticas y ASISTENCIA_DIARIA se actualizan desde el outbox
+        if (justificacion.getFecha() != null) {
+            outboxService.registrarJustificacion(justificacion);
+        }
         
+        sample.stop(meterRegistry.timer("asistencia.justificacion.aprobacion", "resultado", "aprobada"));
         logger.info("✅ Justificación aprobada correctamente");
         
         return "Justificación aprobada correctamente";
     }
 
     @Override
-    public List<Justificacion> getMisJustificaciones(String username) {
+    @Transactional(readOnly = true)
+    public List<JustificacionResponseDto> getMisJustificaciones(String username) {
         logger.info("=== OBTENIENDO MIS JUSTIFICACIONES ===");
         
-        User usuario = userRepo.getByUserName(username)
+        Long usuarioId = userRepo.findIdByUsername(username)
                 .orElseThrow(() -> new ValidatedRequestException("Usuario no encontrado"));
 
-        List<Justificacion> misJustificaciones = justificacionRepo.findAll().stream()
-                .filter(j -> j.getUsuario().getId().equals(usuario.getId()))
-                .toList();
+        List<JustificacionView> misJustificaciones = justificacionRepo.findVistasByUsuarioId(usuarioId);
         
         logger.info("✅ Encontradas {} justificaciones", misJustificaciones.size());
         
-        return misJustificaciones;
+        return justificacionMapper.toResponseDtoList(misJustificaciones, username);
     }
 }
\ No newline at end of file
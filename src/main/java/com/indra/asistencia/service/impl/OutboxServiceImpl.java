@@ -0,0 +1,247 @@
+package com.indra.asistencia.service.impl;
+
+import com.indra.asistencia.models.Asistencia;
+import com.indra.asistencia.models.AsistenciaDiaria;
+import com.indra.asistencia.models.AsistenciaDiariaId;
+import com.indra.asistencia.models.EventoOutbox;
+import com.indra.asistencia.models.Justificacion;
+import com.indra.asistencia.models.User;
+import com.indra.asistencia.repository.EventoOutboxRepository;
+import com.indra.asistencia.repository.IUserRepository;
+import com.indra.asistencia.repository.JustificacionRepository;
+import com.indra.asistencia.service.IAsistenciaDiariaService;
+import com.indra.asistencia.service.IAuditoriaService;
+import com.indra.asistencia.service.IEstadisticaService;
+import com.indra.asistencia.service.IOutboxService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outbox transaccional de los efectos secundarios de marcaciones y justificaciones.
+ * La operacion solo inserta el evento; el despachador crea por lotes las
+ * justificaciones de tardanza, actualiza las estadisticas diarias y acumula
+ * cada lote en ASISTENCIA_DIARIA con una sentencia por usuario y dia.
+ * Si un lote falla se reintenta evento a evento; el que vuelve a fallar suma
+ * un intento y, tras app.outbox.reintentos, queda FALLIDO y deja de despacharse.
+ */
+@Service
+public class OutboxServiceImpl implements IOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxServiceImpl.class);
+
+    static final String CHECKIN = "CHECKIN";
+    static final String CHECKOUT = "CHECKOUT";
+    // Seguido del estado: JUSTIFICACION_PENDIENTE, JUSTIFICACION_APROBADO
+    static final String JUSTIFICACION = "JUSTIFICACION_";
+
+    private final EventoOutboxRepository outboxRepo;
+    private final JustificacionRepository justificacionRepo;
+    private final IUserRepository userRepo;
+    private final IEstadisticaService estadisticaService;
+    private final IAsistenciaDiariaService asistenciaDiariaService;
+    private final IAuditoriaService auditoriaService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final int tamanioLote;
+    private final int maxIntentos;
+
+    public OutboxServiceImpl(EventoOutboxRepository outboxRepo,
+                             JustificacionRepository justificacionRepo,
+                             IUserRepository userRepo,
+                             IEstadisticaService estadisticaService,
+                             IAsistenciaDiariaService asistenciaDiariaService,
+                             IAuditoriaService auditoriaService,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.outbox.lote:200}") int tamanioLote,
+                             @Value("${app.outbox.reintentos:5}") int maxIntentos) {
+        this.outboxRepo = outboxRepo;
+        this.justificacionRepo = justificacionRepo;
+        this.userRepo = userRepo;
+        this.estadisticaService = estadisticaService;
+        this.asistenciaDiariaService = asistenciaDiariaService;
+        this.auditoriaService = auditoriaService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.tamanioLote = tamanioLote;
+        this.maxIntentos = Math.max(maxIntentos, 1);
+    }
+
+    @Override
+    public void registrarCheckin(Asistencia asistencia, boolean primeraDelDia) {
+        outboxRepo.save(EventoOutbox.builder()
+                .tipo(CHECKIN)
+                .usuarioId(asistencia.getUsuario().getId())
+                .asistenciaId(asistencia.getId())
+                .fecha(asistencia.getFechaRegistro())
+                .entrada(asistencia.getEntrada())
+                .primeraDelDia(primeraDelDia)
+                .build());
+    }
+
+    @Override
+    public void registrarCheckout(Asistencia asistencia) {
+        outboxRepo.save(EventoOutbox.builder()
+                .tipo(CHECKOUT)
+                .usuarioId(asistencia.getUsuario().getId())
+                .asistenciaId(asistencia.getId())
+                .fecha(asistencia.getFechaRegistro())
+                .entrada(asistencia.getEntrada())
+                .salida(asistencia.getSalida())
+                .build());
+    }
+
+    @Override
+    public void registrarJustificacion(Justificacion justificacion) {
+        outboxRepo.save(EventoOutbox.builder()
+                .tipo(JUSTIFICACION + justificacion.getEstado())
+                .usuarioId(justificacion.getUsuario().getId())
+                .fecha(justificacion.getFecha())
+                .build());
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${app.outbox.intervalo:PT2S}")
+    public int despachar() {
+        int total = 0;
+        List<Long> ids;
+        int procesados;
+        do {
+            ids = outboxRepo.findIdsPendientes(Limit.of(tamanioLote));
+            procesados = ids.isEmpty() ? 0 : despacharLote(ids);
+            total += procesados;
+            // Sin avance el resto esta bloqueado por otra instancia o fallando: sigue en la siguiente pasada
+        } while (ids.size() == tamanioLote && procesados > 0);
+
+        if (total > 0) {
+            logger.info("Outbox - {} eventos despachados", total);
+        }
+        return total;
+    }
+
+    private int despacharLote(List<Long> ids) {
+        try {
+            return contar(transactionTemplate.execute(status -> procesarLote(ids)));
+        } catch (RuntimeException e) {
+            logger.warn("Outbox - lote de {} eventos fallido, se reintenta evento a evento: {}", ids.size(), e.getMessage());
+        }
+        int procesados = 0;
+        for (Long id : ids) {
+            try {
+                procesados += contar(transactionTemplate.execute(status -> procesarLote(List.of(id))));
+            } catch (RuntimeException e) {
+                if (transactionTemplate.execute(status -> registrarFallo(id, e))) {
+                    meterRegistry.counter("asistencia.outbox.fallidos").increment();
+                }
+            }
+        }
+        return procesados;
+    }
+
+    // Solo tras el commit: un lote revertido y reintentado evento a evento no se cuenta dos veces
+    private int contar(Despacho despacho) {
+        meterRegistry.counter("asistencia.justificacion.automatica", "tipo", "TARDANZA").increment(despacho.tardanzas());
+        meterRegistry.counter("asistencia.outbox.despachados").increment(despacho.eventos());
+        meterRegistry.counter("asistencia.outbox.fallidos").increment(despacho.fallidos());
+        return despacho.eventos() + despacho.fallidos();
+    }
+
+    // Devuelve true si el evento queda FALLIDO
+    private boolean registrarFallo(Long id, RuntimeException causa) {
+        // Otra instancia puede estar despachandolo: SKIP LOCKED
+        for (EventoOutbox evento : outboxRepo.bloquearPendientes(List.of(id))) {
+            evento.setIntentos(evento.getIntentos() + 1);
+            String error = String.valueOf(causa);
+            evento.setError(error.length() > 500 ? error.substring(0, 500) : error);
+            if (evento.getIntentos() >= maxIntentos) {
+                evento.setEstado("FALLIDO");
+                logger.error("Outbox - evento {} ({}) marcado FALLIDO tras {} intentos", id, evento.getTipo(),
+                        evento.getIntentos(), causa);
+                return true;
+            }
+            logger.warn("Outbox - evento {} ({}) fallido, intento {} de {}: {}", id, evento.getTipo(),
+                    evento.getIntentos(), maxIntentos, causa.getMessage());
+        }
+        return false;
+    }
+
+    private record Despacho(int eventos, int tardanzas, int fallidos) {
+    }
+
+    // Devuelve los eventos realmente bloqueados y despachados o apartados; los que tiene otra instancia se omiten
+    private Despacho procesarLote(List<Long> ids) {
+        List<EventoOutbox> eventos = outboxRepo.bloquearPendientes(ids);
+        if (eventos.isEmpty()) {
+            return new Despacho(0, 0, 0);
+        }
+
+        List<Justificacion> tardanzas = new ArrayList<>();
+        List<LocalDateTime> primerasEntradas = new ArrayList<>();
+        Map<AsistenciaDiariaId, AsistenciaDiaria> dias = new LinkedHashMap<>();
+        List<EventoOutbox> despachados = new ArrayList<>(eventos.size());
+        int desconocidos = 0;
+
+        for (EventoOutbox evento : eventos) {
+            if (CHECKIN.equals(evento.getTipo())) {
+                boolean tarde = evento.getEntrada().toLocalTime().isAfter(AsistenciaServiceImpl.HORA_LIMITE_TARDANZA);
+                if (evento.isPrimeraDelDia()) {
+                    primerasEntradas.add(evento.getEntrada());
+                }
+                if (tarde) {
+                    tardanzas.add(tardanzaAutomatica(userRepo.getReferenceById(evento.getUsuarioId()), evento));
+                    dia(dias, evento).marcarJustificacion("PENDIENTE");
+                }
+                dia(dias, evento).sumarEntrada(evento.getEntrada(), tarde);
+            } else if (CHECKOUT.equals(evento.getTipo())) {
+                dia(dias, evento).sumarSalida(evento.getEntrada(), evento.getSalida());
+            } else if (evento.getTipo().startsWith(JUSTIFICACION)) {
+                dia(dias, evento).marcarJustificacion(evento.getTipo().substring(JUSTIFICACION.length()));
+            } else {
+                // Ningun reintento lo resolveria: queda FALLIDO para revision en lugar de borrarse
+                evento.setEstado("FALLIDO");
+                evento.setError("Tipo de evento desconocido: " + evento.getTipo());
+                desconocidos++;
+                logger.error("Outbox - tipo de evento desconocido: {} (ID: {}), marcado FALLIDO", evento.getTipo(), evento.getId());
+                continue;
+            }
+            despachados.add(evento);
+        }
+
+        justificacionRepo.saveAll(tardanzas);
+        tardanzas.forEach(tardanza -> auditoriaService.registrarJustificacion(tardanza, "CREACION", null));
+        if (!primerasEntradas.isEmpty()) {
+            estadisticaService.registrarPrimerasEntradas(primerasEntradas);
+        }
+        asistenciaDiariaService.acumular(dias.values());
+        outboxRepo.deleteAllInBatch(despachados);
+        return new Despacho(despachados.size(), tardanzas.size(), desconocidos);
+    }
+
+    private AsistenciaDiaria dia(Map<AsistenciaDiariaId, AsistenciaDiaria> dias, EventoOutbox evento) {
+        return dias.computeIfAbsent(new AsistenciaDiariaId(evento.getUsuarioId(), evento.getFecha()),
+                id -> AsistenciaDiaria.builder().usuarioId(id.getUsuarioId()).fecha(id.getFecha()).build());
+    }
+
+    private Justificacion tardanzaAutomatica(User usuario, EventoOutbox evento) {
+        return Justificacion.builder()
+                .usuario(usuario)
+                .fecha(evento.getFecha())
+                .tipo("TARDANZA")
+                .motivo("Llegada después de las 09:10 - Sistema automático")
+                .estado("PENDIENTE")
+                .build();
+    }
+}
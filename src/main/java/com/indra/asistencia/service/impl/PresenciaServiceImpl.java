@@ -0,0 +1,166 @@
+package com.indra.asistencia.service.impl;
+
+import com.indra.asistencia.dto.PresenciaDto;
+import com.indra.asistencia.dto.AsistenciaView;
+import com.indra.asistencia.repository.AsistenciaRepository;
+import com.indra.asistencia.service.IPresenciaService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro en memoria de la sesion del dia de cada usuario. Se actualiza
+ * tras el commit de cada check-in/check-out y se reconstruye desde BD al
+ * arrancar y a medianoche, de modo que las consultas de estado no tocan la BD.
+ */
+@Service
+@RequiredArgsConstructor
+public class PresenciaServiceImpl implements IPresenciaService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PresenciaServiceImpl.class);
+
+    private final AsistenciaRepository asistenciaRepo;
+
+    private final Map<Long, Presencia> presencias = new ConcurrentHashMap<>();
+    private final Map<String, Long> usuarios = new ConcurrentHashMap<>();
+
+    private record Presencia(Long usuarioId, String username, LocalDate fecha,
+                             LocalDateTime entrada, LocalDateTime salida) {
+
+        boolean esDe(LocalDate dia) {
+            return fecha.equals(dia);
+        }
+
+        PresenciaDto toDto() {
+            return PresenciaDto.builder()
+                    .usuarioId(usuarioId)
+                    .username(username)
+                    .fechaRegistro(fecha)
+                    .entrada(entrada)
+                    .salida(salida)
+                    .enOficina(salida == null)
+                    .build();
+        }
+    }
+
+    @Override
+    public void registrarEntrada(Long usuarioId, String username, LocalDateTime entrada) {
+        if (!entrada.toLocalDate().equals(LocalDate.now())) {
+            return;
+        }
+        Presencia nueva = new Presencia(usuarioId, username, entrada.toLocalDate(), entrada, null);
+        despuesDelCommit(() -> {
+            usuarios.put(username, usuarioId);
+            presencias.merge(usuarioId, nueva, PresenciaServiceImpl::masReciente);
+        });
+    }
+
+    @Override
+    public void registrarSalida(Long usuarioId, String username, LocalDateTime entrada, LocalDateTime salida) {
+        if (!entrada.toLocalDate().equals(LocalDate.now())) {
+            return;
+        }
+        // Cierra la sesion registrada si es la misma; una sesion posterior ya abierta se conserva
+        Presencia cerrada = new Presencia(usuarioId, username, entrada.toLocalDate(), entrada, salida);
+        despuesDelCommit(() -> {
+            usuarios.put(username, usuarioId);
+            presencias.merge(usuarioId, cerrada, PresenciaServiceImpl::masReciente);
+        });
+    }
+
+    @Override
+    public Optional<PresenciaDto> getPresenciaHoy(String username) {
+        Long usuarioId = usuarios.get(username);
+        if (usuarioId == null) {
+            return Optional.empty();
+        }
+        LocalDate hoy = LocalDate.now();
+        return Optional.ofNullable(presencias.get(usuarioId))
+                .filter(p -> p.esDe(hoy))
+                .map(Presencia::toDto);
+    }
+
+    @Override
+    public List<PresenciaDto> getPresentes() {
+        LocalDate hoy = LocalDate.now();
+        return presencias.values().stream()
+                .filter(p -> p.esDe(hoy) && p.salida() == null)
+                .sorted(Comparator.comparing(Presencia::entrada))
+                .map(Presencia::toDto)
+                .toList();
+    }
+
+    @Override
+    public void renombrarUsuario(String anterior, String nuevo) {
+        // Un renombrado revertido no debe dejar la presencia bajo el nombre nuevo
+        despuesDelCommit(() -> {
+            Long usuarioId = usuarios.remove(anterior);
+            if (usuarioId != null) {
+                usuarios.put(nuevo, usuarioId);
+                presencias.computeIfPresent(usuarioId,
+                        (id, p) -> new Presencia(id, nuevo, p.fecha(), p.entrada(), p.salida()));
+            }
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 0 0 * * *")
+    public void reconstruir() {
+        LocalDate hoy = LocalDate.now();
+        presencias.values().removeIf(p -> !p.esDe(hoy));
+        usuarios.values().retainAll(presencias.keySet());
+
+        for (AsistenciaView a : asistenciaRepo.findDelDiaConUsuario(hoy)) {
+            if (a.entrada() == null) {
+                continue;
+            }
+            Presencia leida = new Presencia(a.usuarioId(), a.username(), a.fechaRegistro(), a.entrada(), a.salida());
+            usuarios.put(leida.username(), leida.usuarioId());
+            presencias.merge(leida.usuarioId(), leida, PresenciaServiceImpl::masReciente);
+        }
+
+        logger.info("Registro de presencia reconstruido - {} usuarios con asistencia hoy", presencias.size());
+    }
+
+    // Una sesion solo pasa de abierta a cerrada: con la misma entrada gana la que tiene salida, de modo que
+    // la lectura de reconstruir, anterior a un check-out concurrente, no reabre la sesion ya cerrada
+    private static Presencia masReciente(Presencia actual, Presencia nueva) {
+        if (!actual.fecha().equals(nueva.fecha())) {
+            return nueva.fecha().isAfter(actual.fecha()) ? nueva : actual;
+        }
+        if (!actual.entrada().equals(nueva.entrada())) {
+            return nueva.entrada().isAfter(actual.entrada()) ? nueva : actual;
+        }
+        return actual.salida() != null && nueva.salida() == null ? actual : nueva;
+    }
+
+    private void despuesDelCommit(Runnable accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                accion.run();
+            }
+        });
+    }
+}
@@ -4,16 +4,15 @@ import com.indra.asistencia.dto.CreateUserRequestDto;
 import com.indra.asistencia.dto.UserResponseDto;
 import com.indra.asistencia.exception.ResourceNotFoundException;
 import com.indra.asistencia.exception.ValidatedRequestException;
-import com.indra.asistencia.mappers.UserMapper;
-import com.indra.asistencia.models.Asistencia;
 import com.indra.asistencia.models.Role;
 import com.indra.asistencia.models.User;
 import com.indra.asistencia.models.UserRols;
-import com.indra.asistencia.repository.AsistenciaRepository;
 import com.indra.asistencia.repository.IRoleRepository;
 import com.indra.asistencia.repository.IUserRepository;
 import com.indra.asistencia.repository.IUserRoleRepository;
+import com.indra.asistencia.service.IPresenciaService;
 import com.indra.asistencia.service.IUserAdminService;
+import com.indra.asistencia.service.IUserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -21,7 +20,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -31,9 +29,9 @@ public class UserAdminServiceImpl implements IUserAdminService {
     private final IUserRepository userRepo;
     private final IRoleRepository roleRepo;
     private final IUserRoleRepository userRoleRepo;
-    private final AsistenciaRepository asistenciaRepo;
-    private final UserMapper userMapper;
     private final PasswordEncoder passwordEncoder;
+    private final IPresenciaService presenciaService;
+    private final IUserService userService;
 
     @Override
     @PreAuthorize("hasRole('ADMIN')")
@@ -59,47 +57,24 @@ public class UserAdminServiceImpl implements IUserAdminService {
                 .role(rol)
                 .build();
         userRoleRepo.save(userRol);
+        userService.invalidarCache(dto.getUsername());
 
         return "Usuario " + dto.getUsername() + " (" + dto.getNombreCompleto() + ") creado con rol " + dto.getRol();
     }
 
     @Override
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional(readOnly = true)
     public List<UserResponseDto> listarUsuarios() {
-        List<User> usuarios = userRepo.findAll();
-        
-        return usuarios.stream()
-                .map(usuario -> {
-                    List<UserRols> roles = userRoleRepo.getRolesByUser(usuario.getId());
-                    String rol = roles != null && !roles.isEmpty() 
-                        ? roles.get(0).getRole().getName() 
-                        : "EMPLEADO";
-                    
-                    List<Asistencia> asistencias = asistenciaRepo.findAll().stream()
-                            .filter(a -> a.getUsuario().getId().equals(usuario.getId()))
-                            .collect(Collectors.toList());
-                    
-                    return userMapper.toDto(usuario, rol, asistencias.size());
-                })
-                .collect(Collectors.toList());
+        return userRepo.findResumenUsuarios();
     }
 
     @Override
     @PreAuthorize("hasRole('ADMIN')")
+    @Transactional(readOnly = true)
     public UserResponseDto obtenerUsuarioPorId(Long id) {
-        User usuario = userRepo.findById(id)
+        return userRepo.findResumenUsuario(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado con ID: " + id));
-        
-        List<UserRols> roles = userRoleRepo.getRolesByUser(usuario.getId());
-        String rol = roles != null && !roles.isEmpty() 
-            ? roles.get(0).getRole().getName() 
-            : "EMPLEADO";
-        
-        List<Asistencia> asistencias = asistenciaRepo.findAll().stream()
-                .filter(a -> a.getUsuario().getId().equals(usuario.getId()))
-                .collect(Collectors.toList());
-        
-        return userMapper.toDto(usuario, rol, asistencias.size());
     }
 
     @Override
@@ -107,12 +82,15 @@ public class UserAdminServiceImpl implements IUserAdminService {
     public String actualizarUsuario(Long id, CreateUserRequestDto dto) {
         User usuario = userRepo.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado"));
+        userService.invalidarCache(usuario.getUsername());
         
         if (!usuario.getUsername().equals(dto.getUsername())) {
             if (userRepo.getByUserName(dto.getUsername()).isPresent()) {
                 throw new ValidatedRequestException("El nombre de usuario ya está en uso");
             }
+            presenciaService.renombrarUsuario(usuario.getUsername(), dto.getUsername());
             usuario.setUsername(dto.getUsername());
+            userService.invalidarCache(dto.getUsername());
         }
         
         usuario.setNombreCompleto(dto.getNombreCompleto());
@@ -146,6 +124,7 @@ public class UserAdminServiceImpl implements IUserAdminService {
         
         usuario.setEnabled(false);
         userRepo.save(usuario);
+        userService.invalidarCache(usuario.getUsername());
         
         return "Usuario desactivado correctamente";
     }
@@ -158,6 +137,7 @@ public class UserAdminServiceImpl implements IUserAdminService {
         
         usuario.setEnabled(true);
         userRepo.save(usuario);
+        userService.invalidarCache(usuario.getUsername());
         
         return "Usuario activado correctamente";
     }
@@ -20,38 +20,35 @@ public class UserDetailsImpl implements UserDetails {
 
 
 
-    private  User user;
-    private List<UserRols> userRols;
+    // Copia inmutable de los datos del usuario: la instancia se guarda en la cache de autenticacion
+    private final String username;
+    private final String password;
+    private final boolean enabled;
+    private final List<GrantedAuthority> authorities;
 
 
     public UserDetailsImpl(User user, List<UserRols> userRols) {
-         this.user = user;
-         this.userRols = userRols;
+         this.username = user.getUsername();
+         this.password = user.getPassword();
+         this.enabled = user.isEnabled();
+         this.authorities = userRols.stream()
+            .map(userRol -> (GrantedAuthority) new SimpleGrantedAuthority(  "ROLE_" + userRol.getRole().getName() )  )
+            .toList();
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-
-
-        if(userRols.size() == 0){
-            return List.of();
-        }
-
-        var authorities = userRols.stream()
-            .map(userRol ->  new SimpleGrantedAuthority(  "ROLE_" + userRol.getRole().getName() )  )
-            .toList();
-
         return authorities;
     }
 
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return user.getUsername();
+        return username;
     }
 
     @Override
@@ -72,7 +69,7 @@ public class UserDetailsImpl implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return user.isEnabled();
+        return enabled;
     }
 
 }
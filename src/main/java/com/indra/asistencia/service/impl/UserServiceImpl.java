@@ -1,47 +1,175 @@
 package com.indra.asistencia.service.impl;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.indra.asistencia.exception.ResourceNotFoundException;
 import com.indra.asistencia.models.User;
 import com.indra.asistencia.repository.IUserRepository;
 import com.indra.asistencia.repository.IUserRoleRepository;
+import com.indra.asistencia.service.IUserService;
+
+import jakarta.persistence.EntityManagerFactory;
 
 @Service
-public class UserServiceImpl implements UserDetailsService {
+public class UserServiceImpl implements UserDetailsService, UserDetailsPasswordService, IUserService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
+
+    private static final int MAX_CACHED_USERS = 10_000;
+
     private final IUserRepository userRepository;
     private final IUserRoleRepository userRoleRepository;
+    private final Duration cacheTtl;
+    private final Statistics estadisticasHibernate;
+
+    // username -> usuario con sus roles y estado; se invalida desde UserAdminServiceImpl
+    private final Map<String, CachedUser> cache = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private record CachedUser(UserDetailsImpl details, Instant expiresAt) {
+    }
 
     public UserServiceImpl(IUserRepository userRepository, 
-                          IUserRoleRepository userRoleRepository) {
+                          IUserRoleRepository userRoleRepository,
+                          @Value("${security.user-cache.ttl:PT10M}") Duration cacheTtl,
+                          EntityManagerFactory entityManagerFactory) {
         this.userRepository = userRepository;
         this.userRoleRepository = userRoleRepository;
+        this.cacheTtl = cacheTtl;
+        this.estadisticasHibernate = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        System.out.println("Buscando usuario: " + username);
-        
-        User user = userRepository.getByUserName(username)
-            .orElseThrow(() -> {
-                System.out.println("Usuario NO encontrado: " + username);
-                return new UsernameNotFoundException("Usuario no encontrado: " + username);
-            });
-        
-        System.out.println("Usuario encontrado: " + username + " (ID: " + user.getId() + ")");
-        
-        var userRols = userRoleRepository.getRolesByUser(user.getId());
-        
-        System.out.println("Roles encontrados para " + username + ": " + 
-            userRols.stream()
-                .map(ur -> ur.getRole().getName())
-                .toList());
+        CachedUser cached = cache.get(username);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            hits.incrementAndGet();
+            return cached.details();
+        }
+        misses.incrementAndGet();
+
+        // Sin pasar por la cache de segundo nivel: una entrada recien caducada aqui no se rellena con datos
+        // que otra instancia ya cambio y que alli pueden seguir vivos otro TTL completo
+        User user = userRepository.getByUserNameDesdeBd(username)
+            .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + username));
         
+        var userRols = userRoleRepository.getRolesByUserDesdeBd(user.getId());
         if (userRols.isEmpty()) {
-            System.out.println("ADVERTENCIA: Usuario " + username + " no tiene roles asignados");
+            logger.warn("Usuario {} no tiene roles asignados", username);
         }
         
-        return new UserDetailsImpl(user, userRols);
+        UserDetailsImpl details = new UserDetailsImpl(user, userRols);
+        if (cache.size() >= MAX_CACHED_USERS) {
+            hacerSitio();
+        }
+        cache.put(username, new CachedUser(details, Instant.now().plus(cacheTtl)));
+        return details;
+    }
+
+    // Primero las entradas caducadas; si no basta, la decima parte mas proxima a caducar (las leidas hace mas
+    // tiempo), en lugar de vaciar la cache y mandar a todos los usuarios activos a la BD a la vez
+    private void hacerSitio() {
+        Instant ahora = Instant.now();
+        cache.values().removeIf(c -> !c.expiresAt().isAfter(ahora));
+        int sobrantes = cache.size() - MAX_CACHED_USERS + MAX_CACHED_USERS / 10;
+        if (sobrantes <= 0) {
+            return;
+        }
+        cache.entrySet().stream()
+            .sorted(Map.Entry.comparingByValue(Comparator.comparing(CachedUser::expiresAt)))
+            .limit(sobrantes)
+            .map(Map.Entry::getKey)
+            .toList()
+            .forEach(cache::remove);
+    }
+
+    // Invocado por DaoAuthenticationProvider tras un login correcto si el hash usa otro coste
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.getByUserName(userDetails.getUsername())
+            .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        cache.remove(user.getUsername());
+
+        logger.info("Hash de contraseña regenerado para {}", user.getUsername());
+        return loadUserByUsername(user.getUsername());
+    }
+
+    @Override
+    public User getByUserName(String username) {
+        return userRepository.getByUserName(username)
+            .orElseThrow(() -> new ResourceNotFoundException("Usuario no encontrado: " + username));
+    }
+
+    @Override
+    public void invalidarCache(String username) {
+        cache.remove(username);
+        // Se repite tras el commit para no conservar datos leidos antes de confirmar el cambio
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.remove(username);
+                }
+            });
+        }
+    }
+
+    @Override
+    public Map<String, Object> getEstadisticasCache() {
+        long h = hits.get();
+        long m = misses.get();
+        Map<String, Object> estadisticas = new LinkedHashMap<>();
+        estadisticas.put("tamanio", cache.size());
+        estadisticas.put("aciertos", h);
+        estadisticas.put("fallos", m);
+        estadisticas.put("tasaAciertos", h + m == 0 ? 0.0 : (double) h / (h + m));
+        estadisticas.put("segundoNivel", getEstadisticasSegundoNivel());
+        return estadisticas;
+    }
+
+    // Regiones de la cache de segundo nivel de Hibernate (User, Role, UserRols y consultas)
+    private Map<String, Object> getEstadisticasSegundoNivel() {
+        Map<String, Object> regiones = new LinkedHashMap<>();
+        for (String region : estadisticasHibernate.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics r = estadisticasHibernate.getCacheRegionStatistics(region);
+            if (r == null) {
+                continue;
+            }
+            Map<String, Object> datos = new LinkedHashMap<>();
+            // JCache no expone el tamanio de la region (Hibernate devuelve un valor negativo)
+            if (r.getElementCountInMemory() >= 0) {
+                datos.put("elementos", r.getElementCountInMemory());
+            }
+            datos.put("aciertos", r.getHitCount());
+            datos.put("fallos", r.getMissCount());
+            datos.put("escrituras", r.getPutCount());
+            regiones.put(region, datos);
+        }
+        return regiones;
     }
-}
\ No newline at end of file
+}
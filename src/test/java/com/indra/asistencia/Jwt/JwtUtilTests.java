@@ -0,0 +1,122 @@
+package com.indra.asistencia.Jwt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+
+class JwtUtilTests {
+
+    // Mismo secreto que JwtUtil, para firmar tokens con una expiracion corta
+    private static final Algorithm ALGORITHM = Algorithm.HMAC256("mysecretkey001");
+    private static final int MAX_VERIFIED_TOKENS = 10_000;
+
+    // Los JWT tienen precision de segundos
+    private final RelojManual reloj = new RelojManual(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+    private final JwtUtil jwtUtil = new JwtUtil(reloj);
+
+    @Test
+    void tokenVerificadoSeReutilizaDesdeLaCache() {
+        String token = jwtUtil.generateToken("ana", List.of("ROLE_EMPLEADO"));
+
+        JwtPrincipal principal = jwtUtil.verify(token);
+        assertEquals("ana", principal.username());
+        assertEquals(List.of("ROLE_EMPLEADO"), principal.roles());
+        assertSame(principal, jwtUtil.verify(token));
+        assertEquals(1, jwtUtil.getVerifiedTokenCount());
+    }
+
+    @Test
+    void tokenAlteradoNoSeCachea() {
+        String token = jwtUtil.generateToken("ana", List.of("ROLE_EMPLEADO"));
+        String alterado = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(SignatureVerificationException.class, () -> jwtUtil.verify(alterado));
+        assertEquals(0, jwtUtil.getVerifiedTokenCount());
+    }
+
+    // Al expirar, la entrada cacheada deja de servir y el token se rechaza como cualquier otro expirado
+    @Test
+    void entradaCacheadaCaducaConSuToken() {
+        String token = token("ana", reloj.instant().plusSeconds(3));
+        assertEquals("ana", jwtUtil.verify(token).username());
+        assertEquals(1, jwtUtil.getVerifiedTokenCount());
+
+        reloj.avanzar(Duration.ofSeconds(4));
+
+        assertThrows(TokenExpiredException.class, () -> jwtUtil.verify(token));
+        assertEquals(0, jwtUtil.getVerifiedTokenCount());
+    }
+
+    // Cache llena: se desalojan primero los tokens expirados; si todos siguen vigentes se vacia
+    @Test
+    void cacheLlenaDesalojaExpiradosYDespuesSeVacia() {
+        Instant expira = reloj.instant().plusSeconds(3);
+        for (int i = 0; i < MAX_VERIFIED_TOKENS - 1; i++) {
+            jwtUtil.verify(token("efimero" + i, expira));
+        }
+        jwtUtil.verify(jwtUtil.generateToken("vigente"));
+        assertEquals(MAX_VERIFIED_TOKENS, jwtUtil.getVerifiedTokenCount());
+
+        reloj.avanzar(Duration.ofSeconds(4));
+        jwtUtil.verify(jwtUtil.generateToken("nuevo"));
+        assertEquals(2, jwtUtil.getVerifiedTokenCount());
+
+        for (int i = 2; i < MAX_VERIFIED_TOKENS; i++) {
+            jwtUtil.verify(jwtUtil.generateToken("vigente" + i));
+        }
+        assertEquals(MAX_VERIFIED_TOKENS, jwtUtil.getVerifiedTokenCount());
+        jwtUtil.verify(jwtUtil.generateToken("ultimo"));
+        assertEquals(1, jwtUtil.getVerifiedTokenCount());
+    }
+
+    private String token(String username, Instant expira) {
+        return JWT.create()
+                .withSubject(username)
+                .withIssuedAt(reloj.instant())
+                .withExpiresAt(expira)
+                .sign(ALGORITHM);
+    }
+
+    private static final class RelojManual extends Clock {
+
+        private Instant ahora;
+
+        private RelojManual(Instant inicio) {
+            this.ahora = inicio;
+        }
+
+        void avanzar(Duration duracion) {
+            ahora = ahora.plus(duracion);
+        }
+
+        @Override
+        public Instant instant() {
+            return ahora;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
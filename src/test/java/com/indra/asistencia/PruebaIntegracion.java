@@ -0,0 +1,26 @@
+package com.indra.asistencia;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Base de las pruebas de integracion: contexto completo sobre H2 (perfil test) y peticiones
+ * con MockMvc. Con la misma configuracion en todas, Spring crea el contexto una sola vez y lo
+ * comparte entre clases; cada prueba siembra sus propios usuarios con SemillaPrueba.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(SemillaPrueba.class)
+public abstract class PruebaIntegracion {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected SemillaPrueba semilla;
+}
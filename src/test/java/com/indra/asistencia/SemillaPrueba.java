@@ -0,0 +1,141 @@
+package com.indra.asistencia;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.indra.asistencia.Jwt.JwtUtil;
+import com.indra.asistencia.models.Asistencia;
+import com.indra.asistencia.models.Justificacion;
+import com.indra.asistencia.models.Role;
+import com.indra.asistencia.models.User;
+import com.indra.asistencia.models.UserRols;
+import com.indra.asistencia.repository.AsistenciaRepository;
+import com.indra.asistencia.repository.IRoleRepository;
+import com.indra.asistencia.repository.IUserRepository;
+import com.indra.asistencia.repository.IUserRoleRepository;
+import com.indra.asistencia.repository.JustificacionRepository;
+
+/**
+ * Datos de prueba compartidos por los tests de integracion (@Import en cada clase). Cada
+ * llamada a sembrar crea usuarios nuevos, de modo que los tests no dependen del orden ni
+ * de lo que dejaron los demas en la base H2 compartida.
+ */
+public class SemillaPrueba {
+
+    private static final AtomicInteger RONDA = new AtomicInteger();
+
+    private final IUserRepository userRepo;
+    private final IRoleRepository roleRepo;
+    private final IUserRoleRepository userRoleRepo;
+    private final AsistenciaRepository asistenciaRepo;
+    private final JustificacionRepository justificacionRepo;
+    private final PasswordEncoder passwordEncoder;
+    private final JwtUtil jwtUtil;
+    private final TransactionTemplate transactionTemplate;
+
+    public SemillaPrueba(IUserRepository userRepo, IRoleRepository roleRepo, IUserRoleRepository userRoleRepo,
+                         AsistenciaRepository asistenciaRepo, JustificacionRepository justificacionRepo,
+                         PasswordEncoder passwordEncoder, JwtUtil jwtUtil,
+                         PlatformTransactionManager transactionManager) {
+        this.userRepo = userRepo;
+        this.roleRepo = roleRepo;
+        this.userRoleRepo = userRoleRepo;
+        this.asistenciaRepo = asistenciaRepo;
+        this.justificacionRepo = justificacionRepo;
+        this.passwordEncoder = passwordEncoder;
+        this.jwtUtil = jwtUtil;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public record Datos(String admin, String empleado, Long empleadoId, Long justificacionPendienteId) {
+    }
+
+    // Un administrador y 'empleados' empleados, cada uno con 'empleados' dias de asistencia y justificaciones
+    public Datos sembrar(int empleados) {
+        int ronda = RONDA.incrementAndGet();
+        String password = passwordEncoder.encode("12345");
+        return transactionTemplate.execute(status -> {
+            Role admin = rol("ADMIN");
+            Role empleado = rol("EMPLEADO");
+
+            User administrador = userRepo.save(usuario("admin" + ronda, password));
+            userRoleRepo.save(UserRols.builder().user(administrador).role(admin).build());
+
+            List<User> usuarios = new ArrayList<>();
+            List<UserRols> roles = new ArrayList<>();
+            for (int i = 0; i < empleados; i++) {
+                User usuario = usuario("emp" + ronda + "_" + i, password);
+                usuarios.add(usuario);
+                roles.add(UserRols.builder().user(usuario).role(empleado).build());
+            }
+            userRepo.saveAll(usuarios);
+            userRoleRepo.saveAll(roles);
+
+            List<Asistencia> asistencias = new ArrayList<>();
+            List<Justificacion> justificaciones = new ArrayList<>();
+            for (User usuario : usuarios) {
+                for (int dia = 1; dia <= empleados; dia++) {
+                    LocalDate fecha = LocalDate.now().minusDays(dia);
+                    asistencias.add(Asistencia.builder()
+                            .usuario(usuario)
+                            .fechaRegistro(fecha)
+                            .entrada(fecha.atTime(LocalTime.of(9, dia % 20)))
+                            .salida(fecha.atTime(18, 0))
+                            .estado("COMPLETADO")
+                            .build());
+                    justificaciones.add(Justificacion.builder()
+                            .usuario(usuario)
+                            .fecha(fecha)
+                            .tipo("TARDANZA")
+                            .motivo("Justificacion de prueba")
+                            .estado(dia % 2 == 0 ? "APROBADO" : "PENDIENTE")
+                            .build());
+                }
+            }
+            // Pendiente de hoy: la fila de estadisticas del dia ya existe y la aprobacion no la siembra
+            Justificacion pendienteHoy = Justificacion.builder()
+                    .usuario(usuarios.get(0))
+                    .fecha(LocalDate.now())
+                    .tipo("AUSENCIA")
+                    .motivo("Justificacion de prueba")
+                    .estado("PENDIENTE")
+                    .build();
+            justificaciones.add(pendienteHoy);
+
+            asistenciaRepo.saveAll(asistencias);
+            justificacionRepo.saveAll(justificaciones);
+
+            return new Datos(administrador.getUsername(), usuarios.get(0).getUsername(), usuarios.get(0).getId(),
+                    pendienteHoy.getId());
+        });
+    }
+
+    public MockHttpServletRequestBuilder conToken(MockHttpServletRequestBuilder peticion, String username) {
+        User usuario = userRepo.getByUserName(username).orElseThrow();
+        List<String> roles = userRoleRepo.getRolesByUser(usuario.getId()).stream()
+                .map(ur -> "ROLE_" + ur.getRole().getName())
+                .toList();
+        return peticion.header("Authorization", "Bearer " + jwtUtil.generateToken(username, roles));
+    }
+
+    private Role rol(String nombre) {
+        return roleRepo.findByName(nombre).orElseGet(() -> roleRepo.save(Role.builder().name(nombre).build()));
+    }
+
+    private User usuario(String username, String password) {
+        return User.builder()
+                .username(username)
+                .password(password)
+                .nombreCompleto("Usuario " + username)
+                .enabled(true)
+                .build();
+    }
+}
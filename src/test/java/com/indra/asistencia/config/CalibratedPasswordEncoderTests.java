@@ -0,0 +1,72 @@
+package com.indra.asistencia.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+class CalibratedPasswordEncoderTests {
+
+    @Test
+    void soloRegeneraHashesDeCosteInferior() {
+        try (CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(5, 1, 1, Duration.ofSeconds(5))) {
+            assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("12345")));
+            assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("12345")));
+            // Otra instancia calibrada con un coste mayor no ve su hash rebajado
+            assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("12345")));
+            assertFalse(encoder.upgradeEncoding("no-es-bcrypt"));
+            assertFalse(encoder.upgradeEncoding(null));
+        }
+    }
+
+    @Test
+    void calibracionRespetaLosLimites() {
+        assertEquals(4, CalibratedPasswordEncoder.calibrateStrength(Duration.ZERO, 4, 6));
+        assertEquals(6, CalibratedPasswordEncoder.calibrateStrength(Duration.ofHours(1), 4, 6));
+    }
+
+    @Test
+    void rechazaAlLlenarseLaColaSinEsperarAlHash() throws Exception {
+        // Un hilo y un hueco en cola: de cuatro hashes simultaneos al menos uno se rechaza al encolar
+        try (CalibratedPasswordEncoder encoder = new CalibratedPasswordEncoder(12, 1, 1, Duration.ofSeconds(30));
+             ExecutorService clientes = Executors.newFixedThreadPool(4)) {
+            CountDownLatch salida = new CountDownLatch(1);
+            List<CompletableFuture<Long>> intentos = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                intentos.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        salida.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    long inicio = System.nanoTime();
+                    try {
+                        encoder.encode("12345");
+                        return -1L;
+                    } catch (AuthenticationServiceException e) {
+                        return System.nanoTime() - inicio;
+                    }
+                }, clientes));
+            }
+            salida.countDown();
+            List<Long> rechazos = intentos.stream()
+                    .map(CompletableFuture::join)
+                    .filter(nanos -> nanos >= 0)
+                    .toList();
+            assertFalse(rechazos.isEmpty());
+            // El rechazo no espera a ningun hash (coste 12: cientos de ms)
+            rechazos.forEach(nanos -> assertTrue(Duration.ofNanos(nanos).toMillis() < 50, nanos + " ns"));
+        }
+    }
+}
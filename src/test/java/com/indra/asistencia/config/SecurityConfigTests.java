@@ -0,0 +1,25 @@
+package com.indra.asistencia.config;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+
+import com.indra.asistencia.PruebaIntegracion;
+import com.indra.asistencia.SemillaPrueba.Datos;
+
+class SecurityConfigTests extends PruebaIntegracion {
+
+    // Las sondas leen health sin token; metricas y prometheus solo con rol ADMIN
+    @Test
+    void actuatorSoloAbreHealth() throws Exception {
+        Datos datos = semilla.sembrar(1);
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+
+        for (String ruta : new String[] {"/actuator/metrics", "/actuator/prometheus", "/actuator/info"}) {
+            mockMvc.perform(get(ruta)).andExpect(status().is4xxClientError());
+            mockMvc.perform(semilla.conToken(get(ruta), datos.empleado())).andExpect(status().isForbidden());
+        }
+        mockMvc.perform(semilla.conToken(get("/actuator/metrics"), datos.admin())).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,55 @@
+package com.indra.asistencia.consultas;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * StatementInspector de Hibernate que registra las sentencias SQL emitidas mientras
+ * la captura esta activa. Es global (no por hilo) para incluir los reportes en
+ * streaming, que se ejecutan en el hilo async. Solo ve lo que pasa por Hibernate:
+ * las consultas con JdbcTemplate no se capturan.
+ */
+public class CapturaSql implements StatementInspector {
+
+    private static final List<String> SENTENCIAS = new ArrayList<>();
+    private static volatile boolean activa;
+
+    @FunctionalInterface
+    public interface Accion {
+        void ejecutar() throws Exception;
+    }
+
+    // Sentencias emitidas durante la accion; la captura se cierra aunque la accion falle
+    public static List<String> capturar(Accion accion) throws Exception {
+        List<String> capturadas;
+        iniciar();
+        try {
+            accion.ejecutar();
+        } finally {
+            capturadas = detener();
+        }
+        return capturadas;
+    }
+
+    private static synchronized void iniciar() {
+        SENTENCIAS.clear();
+        activa = true;
+    }
+
+    private static synchronized List<String> detener() {
+        activa = false;
+        return List.copyOf(SENTENCIAS);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (activa) {
+            synchronized (CapturaSql.class) {
+                SENTENCIAS.add(sql);
+            }
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,332 @@
+package com.indra.asistencia.consultas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indra.asistencia.PruebaIntegracion;
+import com.indra.asistencia.SemillaPrueba.Datos;
+import com.indra.asistencia.dto.ResumenAsistenciaView;
+import com.indra.asistencia.repository.ReporteAsistenciaRepository;
+
+/**
+ * Cuenta las sentencias SQL de cada endpoint con dos volumenes de datos. Si el numero
+ * crece con los datos (N+1) o aparece una lectura sin WHERE sobre las tablas grandes
+ * (findAll), el test falla.
+ */
+class ConsultasSqlTests extends PruebaIntegracion {
+
+    private static final int VOLUMEN_PEQUENIO = 3;
+    private static final int VOLUMEN_GRANDE = 30;
+
+    private static final Pattern LECTURA_SIN_FILTRO = Pattern.compile(
+            "(?is)^\\s*select\\b(?!.*\\bwhere\\b).*\\bfrom\\s+(ASISTENCIA|JUSTIFICACION)\\b.*");
+
+    // Consultas sobre el propio usuario, ya cargado: la asociacion LAZY no necesita JOIN ni recarga
+    private static final Pattern JOIN_USUARIOS = Pattern.compile(
+            "(?is)^\\s*select\\b.*\\bfrom\\s+(ASISTENCIA|JUSTIFICACION)\\b.*\\bjoin\\s+users\\b.*");
+    private static final Pattern USUARIO_POR_ID = Pattern.compile(
+            "(?is)^\\s*select\\b.*\\bfrom\\s+users\\s+\\w+\\s+where\\s+\\w+\\.id\\s*=.*");
+
+    // Las lecturas proyectan solo las columnas necesarias: ninguna carga la fila completa de users
+    private static final Pattern LECTURA_PASSWORD = Pattern.compile("(?is)^\\s*select\\b.*\\.password\\b.*");
+
+    // Usuarios, roles y asignaciones se sirven de la cache de segundo nivel una vez leidos
+    private static final Pattern LECTURA_USUARIOS_ROLES = Pattern.compile(
+            "(?is)^\\s*select\\b.*\\bfrom\\s+(users|roles|user_roles)\\b.*");
+
+    // Filas leidas por cada recorrido en el plan de EXPLAIN ANALYZE de H2
+    private static final Pattern FILAS_LEIDAS = Pattern.compile("scanCount: (\\d+)");
+
+    // Las secuencias (allocationSize = 50) se piden cada 50 inserts: no cuentan como sentencias del endpoint
+    private static final Pattern SECUENCIA = Pattern.compile("(?i).*\\bnext value for\\b.*|.*\\.nextval\\b.*");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void listarUsuarios() throws Exception {
+        verificar("GET /api/admin/usuarios", 1, d -> semilla.conToken(get("/api/admin/usuarios"), d.admin()));
+    }
+
+    @Test
+    void obtenerUsuario() throws Exception {
+        verificar("GET /api/admin/usuarios/{id}", 1,
+                d -> semilla.conToken(get("/api/admin/usuarios/" + d.empleadoId()), d.admin()));
+    }
+
+    @Test
+    void estadisticas() throws Exception {
+        verificar("GET /api/admin/estadisticas", 3, d -> semilla.conToken(get("/api/admin/estadisticas"), d.admin()));
+    }
+
+    @Test
+    void presentes() throws Exception {
+        verificar("GET /api/admin/presentes", 0, d -> semilla.conToken(get("/api/admin/presentes"), d.admin()));
+    }
+
+    @Test
+    void justificacionesPendientes() throws Exception {
+        verificar("GET /api/admin/justificaciones/pendientes", 1,
+                d -> semilla.conToken(get("/api/admin/justificaciones/pendientes"), d.admin()));
+    }
+
+    @Test
+    void historial() throws Exception {
+        // Pagina completa y posterior al limite de archivo: no llega a ASISTENCIA_HISTORICO
+        verificar("GET /api/asistencia/historial", 2,
+                d -> semilla.conToken(get("/api/asistencia/historial").param("size", "2"), d.empleado()));
+    }
+
+    @Test
+    void consultasDelPropioUsuarioSinJoinUsuarios() throws Exception {
+        Datos datos = semilla.sembrar(VOLUMEN_PEQUENIO);
+        List<MockHttpServletRequestBuilder> peticiones = List.of(
+                semilla.conToken(get("/api/asistencia/historial"), datos.empleado()),
+                semilla.conToken(get("/api/asistencia/justificacion/mis-justificaciones"), datos.empleado()),
+                semilla.conToken(post("/api/asistencia/checkin"), datos.empleado()),
+                semilla.conToken(post("/api/asistencia/checkout"), datos.empleado()));
+        for (MockHttpServletRequestBuilder peticion : peticiones) {
+            MvcResult[] resultado = new MvcResult[1];
+            List<String> capturadas = CapturaSql.capturar(
+                    () -> resultado[0] = mockMvc.perform(peticion).andExpect(status().isOk()).andReturn());
+            String ruta = resultado[0].getRequest().getRequestURI();
+            for (String sql : capturadas) {
+                assertTrue(!JOIN_USUARIOS.matcher(sql).matches(), ruta + ": JOIN innecesario con users: " + sql);
+                assertTrue(!USUARIO_POR_ID.matcher(sql).matches(), ruta + ": recarga del usuario por id: " + sql);
+            }
+        }
+    }
+
+    @Test
+    void lecturasSinFilaCompletaDeUsuario() throws Exception {
+        Datos datos = semilla.sembrar(VOLUMEN_PEQUENIO);
+        String desde = LocalDate.now().minusYears(1).toString();
+        String hasta = LocalDate.now().toString();
+        List<MockHttpServletRequestBuilder> peticiones = List.of(
+                semilla.conToken(get("/api/asistencia/historial"), datos.empleado()),
+                semilla.conToken(get("/api/asistencia/justificacion/mis-justificaciones"), datos.empleado()),
+                semilla.conToken(get("/api/admin/justificaciones/pendientes"), datos.admin()),
+                semilla.conToken(get("/api/admin/usuarios"), datos.admin()),
+                semilla.conToken(get("/api/asistencia/reportes/fechas").param("desde", desde).param("hasta", hasta),
+                        datos.admin()));
+        for (MockHttpServletRequestBuilder peticion : peticiones) {
+            MvcResult[] resultado = new MvcResult[1];
+            List<String> capturadas = CapturaSql.capturar(
+                    () -> resultado[0] = mockMvc.perform(peticion).andExpect(status().isOk()).andReturn());
+            String ruta = resultado[0].getRequest().getRequestURI();
+            for (String sql : capturadas) {
+                assertTrue(!LECTURA_PASSWORD.matcher(sql).matches(), ruta + ": lectura de columnas no usadas: " + sql);
+            }
+        }
+    }
+
+    @Test
+    void usuariosYRolesDesdeCacheDeSegundoNivel() throws Exception {
+        Datos datos = semilla.sembrar(VOLUMEN_PEQUENIO);
+        // conToken ya lee el usuario y sus roles; el historial previo, el ID por username
+        mockMvc.perform(semilla.conToken(get("/api/asistencia/historial"), datos.empleado())).andExpect(status().isOk());
+        List<MockHttpServletRequestBuilder> peticiones = List.of(
+                semilla.conToken(post("/api/asistencia/checkin"), datos.empleado()),
+                semilla.conToken(get("/api/asistencia/historial"), datos.empleado()),
+                semilla.conToken(get("/api/asistencia/justificacion/mis-justificaciones"), datos.empleado()));
+        for (MockHttpServletRequestBuilder peticion : peticiones) {
+            MvcResult[] resultado = new MvcResult[1];
+            List<String> capturadas = CapturaSql.capturar(
+                    () -> resultado[0] = mockMvc.perform(peticion).andExpect(status().isOk()).andReturn());
+            String ruta = resultado[0].getRequest().getRequestURI();
+            for (String sql : capturadas) {
+                assertTrue(!LECTURA_USUARIOS_ROLES.matcher(sql).matches(), ruta + ": lectura fuera de cache: " + sql);
+            }
+        }
+    }
+
+    @Test
+    void estado() throws Exception {
+        verificar("GET /api/asistencia/estado", 0, d -> semilla.conToken(get("/api/asistencia/estado"), d.empleado()));
+        verificar("GET /api/asistencia/estado-actual", 0,
+                d -> semilla.conToken(get("/api/asistencia/estado-actual"), d.empleado()));
+    }
+
+    @Test
+    void misJustificaciones() throws Exception {
+        verificar("GET /api/asistencia/justificacion/mis-justificaciones", 2,
+                d -> semilla.conToken(get("/api/asistencia/justificacion/mis-justificaciones"), d.empleado()));
+    }
+
+    @Test
+    void reportePorFechas() throws Exception {
+        // Un rango de un anio empieza antes del limite de archivo: tabla viva y ASISTENCIA_HISTORICO
+        verificar("GET /api/asistencia/reportes/fechas", 2,
+                d -> semilla.conToken(get("/api/asistencia/reportes/fechas")
+                        .param("desde", LocalDate.now().minusYears(1).toString())
+                        .param("hasta", LocalDate.now().toString()), d.admin()));
+    }
+
+    @Test
+    void reportePorFechasStream() throws Exception {
+        int[] conteos = new int[2];
+        int[] volumenes = {VOLUMEN_PEQUENIO, VOLUMEN_GRANDE};
+        for (int i = 0; i < volumenes.length; i++) {
+            Datos datos = semilla.sembrar(volumenes[i]);
+            MockHttpServletRequestBuilder peticion = semilla.conToken(get("/api/asistencia/reportes/fechas/stream")
+                    .param("desde", LocalDate.now().minusYears(1).toString())
+                    .param("hasta", LocalDate.now().toString()), datos.admin());
+            List<String> capturadas = CapturaSql.capturar(() -> {
+                MvcResult resultado = mockMvc.perform(peticion).andReturn();
+                mockMvc.perform(asyncDispatch(resultado)).andExpect(status().isOk());
+            });
+            conteos[i] = validar("GET /api/asistencia/reportes/fechas/stream", capturadas, 2);
+        }
+        assertEquals(conteos[0], conteos[1], "El reporte en streaming emite sentencias por fila");
+    }
+
+    @Test
+    void reportePuntualidad() throws Exception {
+        verificar("GET /api/asistencia/reportes/puntualidad", 1,
+                d -> semilla.conToken(get("/api/asistencia/reportes/puntualidad")
+                        .param("desde", LocalDate.now().minusYears(1).toString())
+                        .param("hasta", LocalDate.now().toString()), d.admin()));
+        verificar("GET /api/asistencia/reportes/puntualidad?username", 1,
+                d -> semilla.conToken(get("/api/asistencia/reportes/puntualidad")
+                        .param("desde", LocalDate.now().minusYears(1).toString())
+                        .param("hasta", LocalDate.now().toString())
+                        .param("username", d.empleado()), d.admin()));
+    }
+
+    @Test
+    void reporteResumenSinProductoCartesiano() throws Exception {
+        LocalDate desde = LocalDate.now().minusYears(1);
+        LocalDate hasta = LocalDate.now();
+        for (int volumen : new int[] {VOLUMEN_PEQUENIO, VOLUMEN_GRANDE}) {
+            Datos datos = semilla.sembrar(volumen);
+            MockHttpServletRequestBuilder peticion = semilla.conToken(get("/api/asistencia/reportes/resumen/stream")
+                    .param("desde", desde.toString())
+                    .param("hasta", hasta.toString()), datos.admin());
+            // El resumen se lee con JdbcTemplate, fuera de CapturaSql: se comprueban sus filas y su plan
+            MvcResult resultado = mockMvc.perform(peticion).andReturn();
+            String cuerpo = mockMvc.perform(asyncDispatch(resultado)).andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            // Cada empleado sembrado: 'volumen' dias con asistencia y la mitad de sus justificaciones aprobadas
+            String ronda = datos.empleado().substring(0, datos.empleado().lastIndexOf('_') + 1);
+            List<ResumenAsistenciaView> filas = new ArrayList<>();
+            for (String linea : cuerpo.split("\n")) {
+                ResumenAsistenciaView fila = objectMapper.readValue(linea, ResumenAsistenciaView.class);
+                if (fila.username().startsWith(ronda)) {
+                    filas.add(fila);
+                }
+            }
+            assertEquals(volumen, filas.size());
+            for (ResumenAsistenciaView fila : filas) {
+                assertEquals(volumen, fila.totalDias(), fila.username());
+                assertEquals(volumen, fila.diasAsistidos(), fila.username());
+                assertEquals(volumen / 2, fila.justificacionesAprobadas(), fila.username());
+            }
+
+            // Coste lineal: cada tabla se recorre una vez, sin asistencias x justificaciones por usuario
+            long filasTablas = jdbcTemplate.queryForObject("SELECT (SELECT COUNT(*) FROM users) "
+                    + "+ (SELECT COUNT(*) FROM ASISTENCIA) + (SELECT COUNT(*) FROM ASISTENCIA_HISTORICO) "
+                    + "+ (SELECT COUNT(*) FROM JUSTIFICACION)", Long.class);
+            for (String consulta : List.of(ReporteAsistenciaRepository.RESUMEN_RANGO,
+                    ReporteAsistenciaRepository.RESUMEN_RANGO_CON_ARCHIVO)) {
+                String plan = jdbcTemplate.queryForObject("EXPLAIN ANALYZE " + consulta,
+                        String.class, desde, hasta, desde, hasta);
+                long filasLeidas = 0;
+                Matcher leidas = FILAS_LEIDAS.matcher(plan);
+                while (leidas.find()) {
+                    filasLeidas += Long.parseLong(leidas.group(1));
+                }
+                assertTrue(filasLeidas > 0, plan);
+                assertTrue(filasLeidas <= 2 * filasTablas,
+                        "El reporte lee " + filasLeidas + " filas para " + filasTablas + " filas en las tablas: " + plan);
+            }
+        }
+    }
+
+    @Test
+    void checkinCheckout() throws Exception {
+        verificar("POST /api/asistencia/checkin", 4, d -> semilla.conToken(post("/api/asistencia/checkin"), d.empleado()),
+                "POST /api/asistencia/checkout", 3, d -> semilla.conToken(post("/api/asistencia/checkout"), d.empleado()));
+    }
+
+    @Test
+    void aprobarJustificacion() throws Exception {
+        verificar("PUT /api/asistencia/justificaciones_aprobacion/{id}", 3,
+                d -> semilla.conToken(put("/api/asistencia/justificaciones_aprobacion/" + d.justificacionPendienteId()),
+                        d.admin()));
+    }
+
+    @Test
+    void login() throws Exception {
+        verificar("POST /auth/login", 3, d -> post("/auth/login")
+                .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                .param("username", d.empleado())
+                .param("password", "12345"));
+    }
+
+    private void verificar(String endpoint, int maximo,
+                           Function<Datos, MockHttpServletRequestBuilder> peticion) throws Exception {
+        int[] conteos = new int[2];
+        int[] volumenes = {VOLUMEN_PEQUENIO, VOLUMEN_GRANDE};
+        for (int i = 0; i < volumenes.length; i++) {
+            conteos[i] = ejecutar(endpoint, maximo, peticion.apply(semilla.sembrar(volumenes[i])));
+        }
+        assertEquals(conteos[0], conteos[1], endpoint + ": el numero de sentencias crece con los datos");
+    }
+
+    // Dos peticiones encadenadas sobre el mismo usuario (check-in seguido de check-out)
+    private void verificar(String endpoint, int maximo, Function<Datos, MockHttpServletRequestBuilder> peticion,
+                           String siguiente, int maximoSiguiente,
+                           Function<Datos, MockHttpServletRequestBuilder> peticionSiguiente) throws Exception {
+        int[][] conteos = new int[2][2];
+        int[] volumenes = {VOLUMEN_PEQUENIO, VOLUMEN_GRANDE};
+        for (int i = 0; i < volumenes.length; i++) {
+            Datos datos = semilla.sembrar(volumenes[i]);
+            conteos[i][0] = ejecutar(endpoint, maximo, peticion.apply(datos));
+            conteos[i][1] = ejecutar(siguiente, maximoSiguiente, peticionSiguiente.apply(datos));
+        }
+        assertEquals(conteos[0][0], conteos[1][0], endpoint + ": el numero de sentencias crece con los datos");
+        assertEquals(conteos[0][1], conteos[1][1], siguiente + ": el numero de sentencias crece con los datos");
+    }
+
+    private int ejecutar(String endpoint, int maximo, MockHttpServletRequestBuilder peticion) throws Exception {
+        List<String> capturadas = CapturaSql.capturar(() -> mockMvc.perform(peticion).andExpect(status().isOk()));
+        return validar(endpoint, capturadas, maximo);
+    }
+
+    private int validar(String endpoint, List<String> capturadas, int maximo) {
+        List<String> sentencias = capturadas.stream()
+                .filter(sql -> !SECUENCIA.matcher(sql).matches())
+                .toList();
+        for (String sql : sentencias) {
+            assertTrue(!LECTURA_SIN_FILTRO.matcher(sql).matches(),
+                    endpoint + ": lectura sin filtro sobre una tabla grande: " + sql);
+        }
+        assertTrue(sentencias.size() <= maximo,
+                endpoint + ": " + sentencias.size() + " sentencias (maximo " + maximo + "): " + sentencias);
+        return sentencias.size();
+    }
+}
@@ -0,0 +1,175 @@
+package com.indra.asistencia.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indra.asistencia.PruebaIntegracion;
+import com.indra.asistencia.SemillaPrueba.Datos;
+import com.indra.asistencia.commons.CursorPageModel;
+import com.indra.asistencia.consultas.CapturaSql;
+import com.indra.asistencia.dto.AsistenciaResponseDto;
+import com.indra.asistencia.dto.EventoAsistenciaDto;
+import com.indra.asistencia.dto.EventoAsistenciaResultadoDto;
+import com.indra.asistencia.dto.LoteAsistenciaRequestDto;
+import com.indra.asistencia.dto.ResumenAsistenciaView;
+import com.indra.asistencia.dto.UserResponseDto;
+import com.indra.asistencia.models.Asistencia;
+import com.indra.asistencia.models.User;
+import com.indra.asistencia.repository.AsistenciaRepository;
+import com.indra.asistencia.repository.IUserRepository;
+import com.indra.asistencia.service.IArchivoAsistenciaService;
+
+class ArchivoAsistenciaIntegracionTests extends PruebaIntegracion {
+
+    private static final int SEMBRADOS = 3;
+
+    @Autowired
+    private IUserRepository userRepo;
+
+    @Autowired
+    private AsistenciaRepository asistenciaRepo;
+
+    @Autowired
+    private IArchivoAsistenciaService archivoService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void archivadoDePeriodosCerrados() throws Exception {
+        Datos datos = semilla.sembrar(SEMBRADOS);
+        LocalDate limite = archivoService.getLimiteArchivo();
+        // Tres sesiones en periodos cerrados y una el primer dia del periodo abierto
+        List<LocalDate> fechas = List.of(limite, limite.minusDays(1), limite.minusDays(35), limite.minusDays(70));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            User empleado = userRepo.getReferenceById(datos.empleadoId());
+            asistenciaRepo.saveAll(fechas.stream()
+                    .map(fecha -> Asistencia.builder()
+                            .usuario(empleado)
+                            .fechaRegistro(fecha)
+                            .entrada(fecha.atTime(9, 0))
+                            .salida(fecha.atTime(18, 0))
+                            .estado("COMPLETADO")
+                            .build())
+                    .toList());
+        });
+        int sesiones = SEMBRADOS + fechas.size();
+        try {
+            assertTrue(archivoService.archivar() >= 3);
+            assertEquals(limite.minusDays(1), jdbcTemplate.queryForObject(
+                    "SELECT MAX(fecha_registro) FROM ASISTENCIA_HISTORICO", LocalDate.class));
+            assertEquals(3, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM ASISTENCIA_HISTORICO WHERE user_id = ?", Integer.class, datos.empleadoId()));
+            assertEquals(SEMBRADOS + 1, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM ASISTENCIA WHERE user_id = ?", Integer.class, datos.empleadoId()));
+
+            // El historial pagina por cursor a traves de ASISTENCIA y ASISTENCIA_HISTORICO sin huecos ni repetidos
+            List<AsistenciaResponseDto> historial = new ArrayList<>();
+            String cursor = null;
+            do {
+                MockHttpServletRequestBuilder peticion = semilla.conToken(get("/api/asistencia/historial").param("size", "2"),
+                        datos.empleado());
+                if (cursor != null) {
+                    peticion.param("cursor", cursor);
+                }
+                CursorPageModel<AsistenciaResponseDto> pagina = objectMapper.readValue(
+                        mockMvc.perform(peticion).andExpect(status().isOk()).andReturn().getResponse().getContentAsString(),
+                        new TypeReference<CursorPageModel<AsistenciaResponseDto>>() { });
+                historial.addAll(pagina.getContent());
+                cursor = pagina.isHasNext() ? pagina.getNextCursor() : null;
+            } while (cursor != null);
+            assertEquals(sesiones, historial.size());
+            assertEquals(sesiones, historial.stream().map(AsistenciaResponseDto::getId).distinct().count());
+            for (int i = 1; i < historial.size(); i++) {
+                assertTrue(historial.get(i).getEntrada().isBefore(historial.get(i - 1).getEntrada()));
+            }
+
+            // El total del listado de administracion suma las sesiones archivadas
+            UserResponseDto usuario = objectMapper.readValue(
+                    mockMvc.perform(semilla.conToken(get("/api/admin/usuarios/" + datos.empleadoId()), datos.admin()))
+                            .andExpect(status().isOk()).andReturn().getResponse().getContentAsString(),
+                    UserResponseDto.class);
+            assertEquals(sesiones, usuario.getTotalAsistencias());
+
+            // Los reportes que llegan al periodo archivado incluyen sus filas
+            String desde = limite.minusYears(1).toString();
+            String hasta = LocalDate.now().toString();
+            List<AsistenciaResponseDto> reporte = objectMapper.readValue(
+                    mockMvc.perform(semilla.conToken(get("/api/asistencia/reportes/fechas")
+                                    .param("desde", desde)
+                                    .param("hasta", hasta), datos.admin()))
+                            .andExpect(status().isOk()).andReturn().getResponse().getContentAsString(),
+                    new TypeReference<List<AsistenciaResponseDto>>() { });
+            assertEquals(sesiones, reporte.stream().filter(a -> datos.empleadoId().equals(a.getUsuarioId())).count());
+
+            MvcResult resultado = mockMvc.perform(semilla.conToken(get("/api/asistencia/reportes/resumen/stream")
+                    .param("desde", desde)
+                    .param("hasta", hasta), datos.admin())).andReturn();
+            String cuerpo = mockMvc.perform(asyncDispatch(resultado)).andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            ResumenAsistenciaView resumen = null;
+            for (String linea : cuerpo.split("\n")) {
+                ResumenAsistenciaView fila = objectMapper.readValue(linea, ResumenAsistenciaView.class);
+                if (fila.username().equals(datos.empleado())) {
+                    resumen = fila;
+                }
+            }
+            assertNotNull(resumen);
+            assertEquals(sesiones, resumen.totalDias());
+
+            // Un rango dentro del periodo abierto no consulta el archivo
+            MockHttpServletRequestBuilder reciente = semilla.conToken(get("/api/asistencia/reportes/fechas")
+                    .param("desde", limite.toString())
+                    .param("hasta", hasta), datos.admin());
+            List<String> capturadas = CapturaSql.capturar(() -> mockMvc.perform(reciente).andExpect(status().isOk()));
+            assertTrue(capturadas.stream().noneMatch(sql -> sql.toUpperCase().contains("ASISTENCIA_HISTORICO")));
+
+            // Los periodos cerrados no admiten marcaciones
+            String lote = objectMapper.writeValueAsString(LoteAsistenciaRequestDto.builder()
+                    .eventos(List.of(EventoAsistenciaDto.builder()
+                            .username(datos.empleado())
+                            .accion("CHECKIN")
+                            .timestamp(limite.minusDays(5).atTime(9, 0))
+                            .build()))
+                    .build());
+            List<EventoAsistenciaResultadoDto> resultados = objectMapper.readValue(
+                    mockMvc.perform(semilla.conToken(post("/api/asistencia/lote"), datos.admin())
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .content(lote))
+                            .andExpect(status().isOk()).andReturn().getResponse().getContentAsString(),
+                    new TypeReference<List<EventoAsistenciaResultadoDto>>() { });
+            assertFalse(resultados.get(0).isExito());
+            assertEquals("El periodo ya está cerrado", resultados.get(0).getMensaje());
+        } finally {
+            // El contexto se comparte entre tests: los demas parten de un archivo vacio
+            jdbcTemplate.update("DELETE FROM ASISTENCIA_HISTORICO");
+        }
+    }
+}
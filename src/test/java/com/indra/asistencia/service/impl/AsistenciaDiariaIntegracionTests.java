@@ -0,0 +1,93 @@
+package com.indra.asistencia.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indra.asistencia.PruebaIntegracion;
+import com.indra.asistencia.SemillaPrueba.Datos;
+import com.indra.asistencia.dto.JustificacionRequestDto;
+import com.indra.asistencia.models.AsistenciaDiaria;
+import com.indra.asistencia.models.AsistenciaDiariaId;
+import com.indra.asistencia.repository.AsistenciaDiariaRepository;
+import com.indra.asistencia.service.IOutboxService;
+
+class AsistenciaDiariaIntegracionTests extends PruebaIntegracion {
+
+    @Autowired
+    private AsistenciaDiariaRepository asistenciaDiariaRepo;
+
+    @Autowired
+    private IOutboxService outboxService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void asistenciaDiariaAcumulaMarcacionesYJustificaciones() throws Exception {
+        Datos datos = semilla.sembrar(3);
+        LocalDateTime antes = LocalDateTime.now();
+        mockMvc.perform(semilla.conToken(post("/api/asistencia/checkin"), datos.empleado())).andExpect(status().isOk());
+        mockMvc.perform(semilla.conToken(post("/api/asistencia/checkout"), datos.empleado())).andExpect(status().isOk());
+        mockMvc.perform(semilla.conToken(put("/api/asistencia/justificaciones_aprobacion/" + datos.justificacionPendienteId()),
+                datos.admin())).andExpect(status().isOk());
+        outboxService.despachar();
+
+        AsistenciaDiaria dia = asistenciaDiariaRepo.findById(new AsistenciaDiariaId(datos.empleadoId(), LocalDate.now()))
+                .orElseThrow();
+        assertEquals(1, dia.getSesiones());
+        assertNotNull(dia.getPrimeraEntrada());
+        assertNotNull(dia.getUltimaSalida());
+        assertFalse(dia.getPrimeraEntrada().isBefore(antes.withNano(0).minusSeconds(1)));
+        assertEquals(dia.getPrimeraEntrada().toLocalTime().isAfter(LocalTime.of(9, 10)), dia.isTardanza());
+        // La tardanza automatica (PENDIENTE) no pisa la aprobacion del mismo dia
+        assertEquals("APROBADO", dia.getEstadoJustificacion());
+
+        // Segunda sesion sobre la fila ya existente: se acumula con UPDATE
+        mockMvc.perform(semilla.conToken(post("/api/asistencia/checkin"), datos.empleado())).andExpect(status().isOk());
+        mockMvc.perform(semilla.conToken(post("/api/asistencia/checkout"), datos.empleado())).andExpect(status().isOk());
+        outboxService.despachar();
+
+        AsistenciaDiaria acumulado = asistenciaDiariaRepo.findById(new AsistenciaDiariaId(dia.getUsuarioId(), dia.getFecha()))
+                .orElseThrow();
+        assertEquals(2, acumulado.getSesiones());
+        assertEquals(dia.getPrimeraEntrada(), acumulado.getPrimeraEntrada());
+        assertEquals(dia.isTardanza(), acumulado.isTardanza());
+        assertFalse(acumulado.getUltimaSalida().isBefore(dia.getUltimaSalida()));
+        assertEquals("APROBADO", acumulado.getEstadoJustificacion());
+    }
+
+    // POST /api/asistencia/justificaciones_solicitud comparte la escritura (y el evento de outbox) de JustificacionServiceImpl
+    @Test
+    void solicitudDeJustificacionLlegaAAsistenciaDiaria() throws Exception {
+        Datos datos = semilla.sembrar(3);
+        LocalDate fecha = LocalDate.now().minusDays(10);
+        String solicitud = objectMapper.writeValueAsString(JustificacionRequestDto.builder()
+                .fecha(fecha)
+                .tipo("AUSENCIA")
+                .motivo("Cita medica programada")
+                .build());
+        mockMvc.perform(semilla.conToken(post("/api/asistencia/justificaciones_solicitud"), datos.empleado())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(solicitud))
+                .andExpect(status().isOk());
+        outboxService.despachar();
+
+        AsistenciaDiaria dia = asistenciaDiariaRepo.findById(new AsistenciaDiariaId(datos.empleadoId(), fecha))
+                .orElseThrow();
+        assertEquals("PENDIENTE", dia.getEstadoJustificacion());
+        assertEquals(0, dia.getSesiones());
+    }
+}
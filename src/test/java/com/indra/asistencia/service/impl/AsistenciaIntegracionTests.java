@@ -0,0 +1,264 @@
+package com.indra.asistencia.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indra.asistencia.PruebaIntegracion;
+import com.indra.asistencia.SemillaPrueba.Datos;
+import com.indra.asistencia.commons.CursorPageModel;
+import com.indra.asistencia.dto.AsistenciaResponseDto;
+import com.indra.asistencia.dto.EventoAsistenciaDto;
+import com.indra.asistencia.dto.EventoAsistenciaResultadoDto;
+import com.indra.asistencia.dto.LoteAsistenciaRequestDto;
+import com.indra.asistencia.models.Asistencia;
+import com.indra.asistencia.repository.AsistenciaRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Transiciones y rechazos de POST /api/asistencia/lote y cursor del historial. Cada test usa
+ * usuarios recien sembrados y un dia sin sesiones previas dentro del periodo abierto.
+ */
+class AsistenciaIntegracionTests extends PruebaIntegracion {
+
+    private static final LocalDate DIA = LocalDate.now().minusDays(20);
+
+    @Autowired
+    private AsistenciaRepository asistenciaRepo;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void sesionAbiertaYCerradaEnElMismoLote() throws Exception {
+        Datos datos = semilla.sembrar(1);
+        List<EventoAsistenciaResultadoDto> resultados = lote(datos,
+                evento(datos.empleado(), "CHECKIN", 8, 0),
+                evento(datos.empleado(), "CHECKOUT", 12, 30));
+
+        assertTrue(resultados.get(0).isExito());
+        assertTrue(resultados.get(1).isExito());
+        assertNotNull(resultados.get(0).getAsistenciaId());
+        assertEquals(resultados.get(0).getAsistenciaId(), resultados.get(1).getAsistenciaId());
+
+        Asistencia sesion = asistenciaRepo.findById(resultados.get(0).getAsistenciaId()).orElseThrow();
+        assertEquals(DIA.atTime(8, 0), sesion.getEntrada());
+        assertEquals(DIA.atTime(12, 30), sesion.getSalida());
+        assertEquals("COMPLETADO", sesion.getEstado());
+    }
+
+    // Se aplican por timestamp, pero cada resultado conserva el indice del evento recibido
+    @Test
+    void eventosDesordenadosSeAplicanEnOrdenCronologico() throws Exception {
+        Datos datos = semilla.sembrar(1);
+        List<EventoAsistenciaResultadoDto> resultados = lote(datos,
+                evento(datos.empleado(), "CHECKOUT", 17, 0),
+                evento(datos.empleado(), "CHECKIN", 13, 0),
+                evento(datos.empleado(), "CHECKOUT", 12, 0),
+                evento(datos.empleado(), "CHECKIN", 8, 0));
+
+        assertTrue(resultados.stream().allMatch(EventoAsistenciaResultadoDto::isExito));
+        for (int i = 0; i < resultados.size(); i++) {
+            assertEquals(i, resultados.get(i).getIndice());
+        }
+        // Dos sesiones: 08:00-12:00 y 13:00-17:00
+        assertEquals(resultados.get(2).getAsistenciaId(), resultados.get(3).getAsistenciaId());
+        assertEquals(resultados.get(0).getAsistenciaId(), resultados.get(1).getAsistenciaId());
+        assertNotEquals(resultados.get(0).getAsistenciaId(), resultados.get(3).getAsistenciaId());
+        assertEquals(DIA.atTime(17, 0), asistenciaRepo.findById(resultados.get(1).getAsistenciaId()).orElseThrow().getSalida());
+    }
+
+    @Test
+    void duplicadosEnElMismoLoteSeRechazan() throws Exception {
+        Datos datos = semilla.sembrar(1);
+        List<EventoAsistenciaResultadoDto> resultados = lote(datos,
+                evento(datos.empleado(), "CHECKIN", 8, 0),
+                evento(datos.empleado(), "CHECKIN", 8, 0),
+                evento(datos.empleado(), "CHECKOUT", 12, 0),
+                evento(datos.empleado(), "CHECKOUT", 12, 0));
+
+        assertTrue(resultados.get(0).isExito());
+        assertRechazado("Ya tiene un check-in sin cerrar ese día", resultados.get(1));
+        assertTrue(resultados.get(2).isExito());
+        assertRechazado("Ya registró su salida ese día", resultados.get(3));
+        assertEquals(1, sesionesDelDia(datos));
+    }
+
+    // La sesion abierta por un lote anterior se cierra en el siguiente
+    @Test
+    void sesionAbiertaEnOtroLoteSeCierra() throws Exception {
+        Datos datos = semilla.sembrar(1);
+        Long id = lote(datos, evento(datos.empleado(), "CHECKIN", 10, 0)).get(0).getAsistenciaId();
+        assertNull(asistenciaRepo.findById(id).orElseThrow().getSalida());
+
+        List<EventoAsistenciaResultadoDto> resultados = lote(datos,
+                evento(datos.empleado(), "CHECKOUT", 9, 0),
+                evento(datos.empleado(), "CHECKOUT", 18, 0));
+
+        assertRechazado("La salida es anterior a la entrada", resultados.get(0));
+        assertTrue(resultados.get(1).isExito());
+        assertEquals(id, resultados.get(1).getAsistenciaId());
+        assertEquals(DIA.atTime(18, 0), asistenciaRepo.findById(id).orElseThrow().getSalida());
+
+        // Un check-in anterior a la salida ya registrada no reabre el dia
+        assertRechazado("El evento es anterior al último registro del día",
+                lote(datos, evento(datos.empleado(), "CHECKIN", 17, 0)).get(0));
+        assertEquals(1, sesionesDelDia(datos));
+    }
+
+    // Los eventos invalidos se informan uno a uno sin rechazar el lote
+    @Test
+    void rechazosIndividualesNoAfectanAlResto() throws Exception {
+        Datos datos = semilla.sembrar(1);
+        List<EventoAsistenciaResultadoDto> resultados = lote(datos,
+                evento(datos.empleado(), "CHECKOUT", 7, 0),
+                EventoAsistenciaDto.builder().username(datos.empleado()).accion("CHECKIN").build(),
+                evento(datos.empleado(), "PAUSA", 8, 0),
+                evento("no_existe", "CHECKIN", 8, 0),
+                evento(datos.empleado(), "checkin", 9, 0));
+
+        assertRechazado("No tiene check-in abierto ese día", resultados.get(0));
+        assertRechazado("Evento incompleto", resultados.get(1));
+        assertRechazado("Acción no válida", resultados.get(2));
+        assertRechazado("Usuario no encontrado o inactivo", resultados.get(3));
+        assertTrue(resultados.get(4).isExito());
+        assertEquals(1, sesionesDelDia(datos));
+    }
+
+    // Un evento con hora futura no abre la sesion; dentro de la tolerancia de reloj si se acepta
+    @Test
+    void eventoFuturoSeRechaza() throws Exception {
+        Datos datos = semilla.sembrar(1);
+        double rechazados = meterRegistry.counter("asistencia.lote.eventos", "resultado", "rechazado").count();
+        LocalDateTime ahora = LocalDateTime.now();
+        List<EventoAsistenciaResultadoDto> resultados = lote(datos,
+                EventoAsistenciaDto.builder().username(datos.empleado()).accion("CHECKIN").timestamp(ahora.plusHours(1)).build(),
+                EventoAsistenciaDto.builder().username(datos.empleado()).accion("CHECKIN").timestamp(ahora.plusSeconds(30)).build());
+
+        assertRechazado("El evento es posterior a la hora actual", resultados.get(0));
+        assertTrue(resultados.get(1).isExito());
+        assertEquals(rechazados + 1, meterRegistry.counter("asistencia.lote.eventos", "resultado", "rechazado").count());
+    }
+
+    // Varias sesiones el mismo dia: el id desempata la fecha y ninguna fila se repite ni se pierde
+    @Test
+    void historialRecorreTodasLasSesionesConEmpatesDeFecha() throws Exception {
+        Datos datos = semilla.sembrar(2);
+        lote(datos,
+                evento(datos.empleado(), "CHECKIN", 8, 0),
+                evento(datos.empleado(), "CHECKOUT", 9, 0),
+                evento(datos.empleado(), "CHECKIN", 10, 0),
+                evento(datos.empleado(), "CHECKOUT", 11, 0),
+                evento(datos.empleado(), "CHECKIN", 12, 0));
+        List<Long> esperados = asistenciaRepo.findByUsuariosYRango(List.of(datos.empleadoId()), DIA, LocalDate.now()).stream()
+                .sorted(Comparator.comparing(Asistencia::getFechaRegistro).thenComparing(Asistencia::getId).reversed())
+                .map(Asistencia::getId)
+                .toList();
+        assertEquals(5, esperados.size());
+
+        List<Long> leidos = new ArrayList<>();
+        CursorPageModel<AsistenciaResponseDto> pagina = historial(datos, null);
+        while (true) {
+            pagina.getContent().forEach(a -> leidos.add(a.getId()));
+            if (!pagina.isHasNext()) {
+                break;
+            }
+            assertEquals(2, pagina.getContent().size());
+            pagina = historial(datos, pagina.getNextCursor());
+        }
+        assertEquals(esperados, leidos);
+        // Ultima pagina: sin cursor siguiente
+        assertNull(pagina.getNextCursor());
+    }
+
+    @Test
+    void cursorPosteriorALaUltimaFilaDevuelvePaginaVacia() throws Exception {
+        Datos datos = semilla.sembrar(1);
+        CursorPageModel<AsistenciaResponseDto> pagina = historial(datos, cursor(DIA.minusYears(5) + ":1"));
+
+        assertTrue(pagina.getContent().isEmpty());
+        assertFalse(pagina.isHasNext());
+        assertNull(pagina.getNextCursor());
+    }
+
+    @Test
+    void cursorMalformadoOAlteradoSeRechaza() throws Exception {
+        Datos datos = semilla.sembrar(1);
+        for (String invalido : List.of("no es base64!", cursor("sin-separador"), cursor("2024-13-01:5"),
+                cursor("2024-01-01:"), cursor("2024-01-01:abc"), cursor("2024-01-01:5:7"))) {
+            mockMvc.perform(semilla.conToken(historialDesde(invalido), datos.empleado()))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private CursorPageModel<AsistenciaResponseDto> historial(Datos datos, String cursor) throws Exception {
+        return objectMapper.readValue(
+                mockMvc.perform(semilla.conToken(historialDesde(cursor), datos.empleado()))
+                        .andExpect(status().isOk()).andReturn().getResponse().getContentAsString(),
+                new TypeReference<CursorPageModel<AsistenciaResponseDto>>() { });
+    }
+
+    private MockHttpServletRequestBuilder historialDesde(String cursor) {
+        MockHttpServletRequestBuilder peticion = get("/api/asistencia/historial").param("size", "2");
+        return cursor == null ? peticion : peticion.param("cursor", cursor);
+    }
+
+    private String cursor(String valor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<EventoAsistenciaResultadoDto> lote(Datos datos, EventoAsistenciaDto... eventos) throws Exception {
+        String cuerpo = objectMapper.writeValueAsString(LoteAsistenciaRequestDto.builder()
+                .eventos(List.of(eventos))
+                .build());
+        return objectMapper.readValue(
+                mockMvc.perform(semilla.conToken(post("/api/asistencia/lote"), datos.admin())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(cuerpo))
+                        .andExpect(status().isOk()).andReturn().getResponse().getContentAsString(),
+                new TypeReference<List<EventoAsistenciaResultadoDto>>() { });
+    }
+
+    private EventoAsistenciaDto evento(String username, String accion, int hora, int minuto) {
+        return EventoAsistenciaDto.builder()
+                .username(username)
+                .accion(accion)
+                .timestamp(DIA.atTime(hora, minuto))
+                .build();
+    }
+
+    private void assertRechazado(String mensaje, EventoAsistenciaResultadoDto resultado) {
+        assertFalse(resultado.isExito());
+        assertEquals(mensaje, resultado.getMensaje());
+        assertNull(resultado.getAsistenciaId());
+    }
+
+    private long sesionesDelDia(Datos datos) {
+        return asistenciaRepo.findByUsuariosYRango(List.of(datos.empleadoId()), DIA, DIA).size();
+    }
+}
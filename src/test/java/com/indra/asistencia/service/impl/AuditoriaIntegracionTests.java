@@ -0,0 +1,65 @@
+package com.indra.asistencia.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import com.indra.asistencia.PruebaIntegracion;
+import com.indra.asistencia.SemillaPrueba.Datos;
+import com.indra.asistencia.service.IAuditoriaService;
+
+class AuditoriaIntegracionTests extends PruebaIntegracion {
+
+    @Autowired
+    private IAuditoriaService auditoriaService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void auditoriaPorLotesConIpYAdministrador() throws Exception {
+        Datos datos = semilla.sembrar(3);
+        mockMvc.perform(semilla.conToken(post("/api/asistencia/checkin"), datos.empleado()).with(desdeIp("10.20.30.40")))
+                .andExpect(status().isOk());
+        mockMvc.perform(semilla.conToken(post("/api/asistencia/checkout"), datos.empleado()).with(desdeIp("10.20.30.40")))
+                .andExpect(status().isOk());
+        mockMvc.perform(semilla.conToken(put("/api/asistencia/justificaciones_aprobacion/" + datos.justificacionPendienteId()),
+                datos.admin())).andExpect(status().isOk());
+        assertTrue(auditoriaService.vaciar() >= 3);
+
+        List<Map<String, Object>> marcaciones = jdbcTemplate.queryForList(
+                "SELECT accion, ip_address FROM LOG_ASISTENCIA WHERE user_id = ? ORDER BY id_log", datos.empleadoId());
+        assertEquals(List.of(Map.of("ACCION", "CHECKIN", "IP_ADDRESS", "10.20.30.40"),
+                Map.of("ACCION", "CHECKOUT", "IP_ADDRESS", "10.20.30.40")), marcaciones);
+        Map<String, Object> aprobacion = jdbcTemplate.queryForMap(
+                "SELECT usuario_admin, estado_anterior, estado_nuevo FROM LOG_JUSTIFICACION "
+                        + "WHERE justificacion_id = ? AND accion = 'APROBACION'", datos.justificacionPendienteId());
+        assertEquals(Map.of("USUARIO_ADMIN", datos.admin(), "ESTADO_ANTERIOR", "PENDIENTE", "ESTADO_NUEVO", "APROBADO"),
+                aprobacion);
+
+        // La purga borra por trozos solo lo que supera la retencion
+        jdbcTemplate.update("INSERT INTO LOG_ASISTENCIA (user_id, accion, fecha_hora, detalle) VALUES (?, 'CHECKIN', ?, ?)",
+                datos.empleadoId(), LocalDateTime.now().minusYears(2), "Fuera de retencion");
+        assertTrue(auditoriaService.purgar() >= 1);
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM LOG_ASISTENCIA WHERE user_id = ?", Integer.class, datos.empleadoId()));
+    }
+
+    private RequestPostProcessor desdeIp(String ip) {
+        return peticion -> {
+            peticion.setRemoteAddr(ip);
+            return peticion;
+        };
+    }
+}
@@ -0,0 +1,97 @@
+package com.indra.asistencia.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.indra.asistencia.models.Asistencia;
+import com.indra.asistencia.models.Justificacion;
+import com.indra.asistencia.models.LogAsistencia;
+import com.indra.asistencia.models.User;
+import com.indra.asistencia.repository.AuditoriaRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Reintentos del vaciado con el repositorio simulado; la escritura real se prueba en AuditoriaIntegracionTests
+class AuditoriaServiceImplTests {
+
+    // Caida transitoria de la BD: el lote fallido se conserva y se escribe en la siguiente pasada
+    @Test
+    void loteFallidoSeReintentaEnLaSiguientePasada() {
+        AuditoriaRepository repo = mock(AuditoriaRepository.class);
+        doThrow(new DataAccessResourceFailureException("BD caida")).doNothing()
+                .when(repo).insertarLogsAsistencia(anyList());
+        SimpleMeterRegistry metricas = new SimpleMeterRegistry();
+        AuditoriaServiceImpl auditoria = auditoria(repo, metricas, 3);
+
+        auditoria.registrarAsistencia(asistencia(1L), "CHECKIN");
+        auditoria.registrarAsistencia(asistencia(2L), "CHECKIN");
+        assertEquals(0, auditoria.vaciar());
+        auditoria.registrarAsistencia(asistencia(3L), "CHECKOUT");
+        assertEquals(3, auditoria.vaciar());
+
+        ArgumentCaptor<List<LogAsistencia>> lotes = ArgumentCaptor.captor();
+        verify(repo, times(3)).insertarLogsAsistencia(lotes.capture());
+        // Mismo lote en el reintento y despues lo encolado mientras tanto, en orden
+        assertEquals(List.of(1L, 2L), lotes.getAllValues().get(1).stream().map(LogAsistencia::getUsuarioId).toList());
+        assertEquals(List.of(3L), lotes.getAllValues().get(2).stream().map(LogAsistencia::getUsuarioId).toList());
+        assertEquals(2, metricas.counter("auditoria.eventos", "tipo", "asistencia", "resultado", "error").count());
+        assertEquals(0, metricas.counter("auditoria.eventos", "tipo", "asistencia", "resultado", "descartado").count());
+    }
+
+    // Un fallo que no es de acceso a datos tampoco pierde el lote ni corta el vaciado del otro canal
+    @Test
+    void errorInesperadoSeReintentaSinBloquearElOtroCanal() {
+        AuditoriaRepository repo = mock(AuditoriaRepository.class);
+        doThrow(new IllegalStateException("Conversion fallida")).doNothing()
+                .when(repo).insertarLogsAsistencia(anyList());
+        SimpleMeterRegistry metricas = new SimpleMeterRegistry();
+        AuditoriaServiceImpl auditoria = auditoria(repo, metricas, 3);
+
+        auditoria.registrarAsistencia(asistencia(1L), "CHECKIN");
+        auditoria.registrarJustificacion(Justificacion.builder().id(7L).estado("PENDIENTE").build(), "CREACION", null);
+        assertEquals(1, auditoria.vaciar());
+        verify(repo).insertarLogsJustificacion(anyList());
+        assertEquals(1, auditoria.vaciar());
+
+        verify(repo, times(2)).insertarLogsAsistencia(anyList());
+        assertEquals(1, metricas.counter("auditoria.eventos", "tipo", "asistencia", "resultado", "error").count());
+        assertEquals(1, metricas.counter("auditoria.eventos", "tipo", "asistencia", "resultado", "escrito").count());
+    }
+
+    @Test
+    void loteFallidoSeDescartaTrasAgotarLosReintentos() {
+        AuditoriaRepository repo = mock(AuditoriaRepository.class);
+        doThrow(new DataAccessResourceFailureException("BD caida")).when(repo).insertarLogsAsistencia(anyList());
+        SimpleMeterRegistry metricas = new SimpleMeterRegistry();
+        AuditoriaServiceImpl auditoria = auditoria(repo, metricas, 2);
+
+        auditoria.registrarAsistencia(asistencia(1L), "CHECKIN");
+        assertEquals(0, auditoria.vaciar());
+        assertEquals(0, auditoria.vaciar());
+        assertEquals(0, auditoria.vaciar());
+
+        verify(repo, times(2)).insertarLogsAsistencia(anyList());
+        assertEquals(1, metricas.counter("auditoria.eventos", "tipo", "asistencia", "resultado", "descartado").count());
+    }
+
+    private AuditoriaServiceImpl auditoria(AuditoriaRepository repo, SimpleMeterRegistry metricas, int reintentos) {
+        return new AuditoriaServiceImpl(repo, metricas, mock(PlatformTransactionManager.class),
+                100, 500, reintentos, Duration.ofDays(180), 5000);
+    }
+
+    private Asistencia asistencia(Long usuarioId) {
+        return Asistencia.builder().usuario(User.builder().id(usuarioId).build()).build();
+    }
+}
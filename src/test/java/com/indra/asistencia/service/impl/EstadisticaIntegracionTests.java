@@ -0,0 +1,76 @@
+package com.indra.asistencia.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.indra.asistencia.PruebaIntegracion;
+import com.indra.asistencia.SemillaPrueba.Datos;
+import com.indra.asistencia.models.EstadisticaDiaria;
+import com.indra.asistencia.repository.EstadisticaDiariaRepository;
+import com.indra.asistencia.repository.IUserRepository;
+import com.indra.asistencia.service.IEstadisticaService;
+import com.indra.asistencia.service.IOutboxService;
+
+class EstadisticaIntegracionTests extends PruebaIntegracion {
+
+    @Autowired
+    private IEstadisticaService estadisticaService;
+
+    @Autowired
+    private IOutboxService outboxService;
+
+    @Autowired
+    private EstadisticaDiariaRepository estadisticaRepo;
+
+    @Autowired
+    private IUserRepository userRepo;
+
+    // El check-in aun en el outbox cuando se crea la fila del dia solo se cuenta al despacharse
+    @Test
+    void filaDelDiaNoCuentaEventosPendientesDeDespacho() throws Exception {
+        Datos datos = semilla.sembrar(2);
+        outboxService.despachar();
+        LocalDate hoy = LocalDate.now();
+        estadisticaRepo.deleteById(hoy);
+
+        mockMvc.perform(semilla.conToken(post("/api/asistencia/checkin"), datos.empleado())).andExpect(status().isOk());
+        estadisticaService.prepararDia();
+        EstadisticaDiaria vacia = estadisticaRepo.findById(hoy).orElseThrow();
+        assertEquals(0, vacia.getPresentes());
+        assertEquals(userRepo.countByEnabledTrue(), vacia.getEmpleadosActivos());
+
+        outboxService.despachar();
+        // Una nueva pasada de prepararDia no reinicia los contadores ya acumulados
+        estadisticaService.prepararDia();
+        EstadisticaDiaria dia = estadisticaRepo.findById(hoy).orElseThrow();
+        assertEquals(1, dia.getPresentes());
+        assertEquals(1, dia.getPuntuales() + dia.getTardanzas());
+    }
+
+    @Test
+    void creacionConcurrenteDeLaFilaDelDiaNoFalla() {
+        LocalDate hoy = LocalDate.now();
+        estadisticaRepo.deleteById(hoy);
+
+        ExecutorService hilos = Executors.newFixedThreadPool(4);
+        try {
+            CompletableFuture.allOf(IntStream.range(0, 8)
+                    .mapToObj(i -> CompletableFuture.runAsync(estadisticaService::prepararDia, hilos))
+                    .toArray(CompletableFuture[]::new)).join();
+        } finally {
+            hilos.shutdown();
+        }
+
+        assertEquals(1, estadisticaRepo.findByFechaBetweenOrderByFecha(hoy, hoy).size());
+    }
+}
@@ -0,0 +1,52 @@
+package com.indra.asistencia.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.indra.asistencia.models.EstadisticaDiaria;
+import com.indra.asistencia.repository.EstadisticaDiariaRepository;
+import com.indra.asistencia.repository.IUserRepository;
+import com.indra.asistencia.repository.JustificacionRepository;
+
+// Calculo del panel a partir de las filas diarias; la creacion y los incrementos se prueban en EstadisticaIntegracionTests
+class EstadisticaServiceImplTests {
+
+    private final EstadisticaDiariaRepository estadisticaRepo = mock(EstadisticaDiariaRepository.class);
+    private final JustificacionRepository justificacionRepo = mock(JustificacionRepository.class);
+    private final IUserRepository userRepo = mock(IUserRepository.class);
+    private final EstadisticaServiceImpl estadisticas = new EstadisticaServiceImpl(
+            estadisticaRepo, justificacionRepo, userRepo, mock(PlatformTransactionManager.class));
+
+    // Los usuarios deshabilitados no cuentan como empleados, igual que en empleados_activos del dia
+    @Test
+    void panelDeLaSemanaConEmpleadosHabilitados() {
+        LocalDate hoy = LocalDate.now();
+        LocalDate lunes = hoy.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        when(estadisticaRepo.findByFechaBetweenOrderByFecha(lunes, hoy)).thenReturn(List.of(
+                EstadisticaDiaria.builder().fecha(lunes).empleadosActivos(5).presentes(3).puntuales(2).tardanzas(1).build()));
+        when(justificacionRepo.countByEstado("PENDIENTE")).thenReturn(4L);
+        when(userRepo.countByEnabledTrue()).thenReturn(5L);
+        when(userRepo.count()).thenReturn(8L);
+
+        Map<String, Object> panel = estadisticas.getEstadisticas();
+
+        assertEquals(5L, panel.get("totalEmpleados"));
+        assertEquals(4L, panel.get("justificacionesPendientes"));
+        assertEquals(3, ((List<?>) panel.get("asistenciasPorDia")).get(0));
+        assertEquals(2, panel.get("puntuales"));
+        assertEquals(1, panel.get("tardanzas"));
+        assertEquals(2, panel.get("ausencias"));
+        assertEquals(67L, panel.get("porcentajePuntualidad"));
+        assertEquals(hoy.equals(lunes) ? 3 : 0, panel.get("presentesHoy"));
+    }
+}
@@ -0,0 +1,124 @@
+package com.indra.asistencia.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.indra.asistencia.PruebaIntegracion;
+import com.indra.asistencia.SemillaPrueba.Datos;
+import com.indra.asistencia.models.EventoOutbox;
+import com.indra.asistencia.repository.EventoOutboxRepository;
+import com.indra.asistencia.service.IOutboxService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+class OutboxIntegracionTests extends PruebaIntegracion {
+
+    @Autowired
+    private IOutboxService outboxService;
+
+    @Autowired
+    private EventoOutboxRepository outboxRepo;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${app.outbox.reintentos:5}")
+    private int maxIntentos;
+
+    // Un check-in sin entrada no puede despacharse: no bloquea al resto y acaba apartado como FALLIDO
+    @Test
+    void eventoVenenosoNoBloqueaElLoteYQuedaFallido() throws Exception {
+        Datos datos = semilla.sembrar(1);
+        outboxService.despachar();
+        EventoOutbox venenoso = outboxRepo.save(EventoOutbox.builder()
+                .tipo(OutboxServiceImpl.CHECKIN)
+                .usuarioId(datos.empleadoId())
+                .fecha(LocalDate.now())
+                .build());
+        try {
+            mockMvc.perform(semilla.conToken(post("/api/asistencia/checkin"), datos.empleado())).andExpect(status().isOk());
+
+            // Solo cuenta el evento realmente despachado, una vez aunque el lote se reintente evento a evento
+            double despachados = meterRegistry.counter("asistencia.outbox.despachados").count();
+            assertEquals(1, outboxService.despachar());
+            assertEquals(despachados + 1, meterRegistry.counter("asistencia.outbox.despachados").count());
+            EventoOutbox reintento = outboxRepo.findById(venenoso.getId()).orElseThrow();
+            assertEquals("PENDIENTE", reintento.getEstado());
+            assertEquals(1, reintento.getIntentos());
+            assertNotNull(reintento.getError());
+
+            for (int i = 1; i < maxIntentos; i++) {
+                assertEquals(0, outboxService.despachar());
+            }
+            EventoOutbox fallido = outboxRepo.findById(venenoso.getId()).orElseThrow();
+            assertEquals(despachados + 1, meterRegistry.counter("asistencia.outbox.despachados").count());
+            assertEquals("FALLIDO", fallido.getEstado());
+            assertEquals(maxIntentos, fallido.getIntentos());
+
+            // Apartado: ya no se lee ni suma intentos
+            assertFalse(outboxRepo.findIdsPendientes(Limit.of(1000)).contains(venenoso.getId()));
+            assertEquals(0, outboxService.despachar());
+            assertEquals(maxIntentos, outboxRepo.findById(venenoso.getId()).orElseThrow().getIntentos());
+        } finally {
+            outboxRepo.deleteById(venenoso.getId());
+        }
+    }
+
+    // Marcado FALLIDO por otra instancia entre findIdsPendientes y el bloqueo: no se despacha ni suma intentos
+    @Test
+    void eventoFallidoNoSeBloqueaParaDespacho() {
+        Datos datos = semilla.sembrar(1);
+        EventoOutbox fallido = outboxRepo.save(EventoOutbox.builder()
+                .tipo(OutboxServiceImpl.CHECKIN)
+                .usuarioId(datos.empleadoId())
+                .fecha(LocalDate.now())
+                .estado("FALLIDO")
+                .build());
+        try {
+            List<EventoOutbox> bloqueados = new TransactionTemplate(transactionManager)
+                    .execute(status -> outboxRepo.bloquearPendientes(List.of(fallido.getId())));
+            assertTrue(bloqueados.isEmpty());
+        } finally {
+            outboxRepo.deleteById(fallido.getId());
+        }
+    }
+
+    @Test
+    void tipoDesconocidoQuedaFallidoSinBorrarse() {
+        Datos datos = semilla.sembrar(1);
+        outboxService.despachar();
+        EventoOutbox desconocido = outboxRepo.save(EventoOutbox.builder()
+                .tipo("PAUSA")
+                .usuarioId(datos.empleadoId())
+                .fecha(LocalDate.now())
+                .build());
+        try {
+            double fallidos = meterRegistry.counter("asistencia.outbox.fallidos").count();
+            outboxService.despachar();
+
+            EventoOutbox apartado = outboxRepo.findById(desconocido.getId()).orElseThrow();
+            assertEquals("FALLIDO", apartado.getEstado());
+            assertNotNull(apartado.getError());
+            assertEquals(fallidos + 1, meterRegistry.counter("asistencia.outbox.fallidos").count());
+        } finally {
+            outboxRepo.deleteById(desconocido.getId());
+        }
+    }
+}
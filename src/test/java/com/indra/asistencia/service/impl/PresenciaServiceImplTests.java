@@ -0,0 +1,139 @@
+package com.indra.asistencia.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.indra.asistencia.dto.AsistenciaView;
+import com.indra.asistencia.dto.PresenciaDto;
+import com.indra.asistencia.repository.AsistenciaRepository;
+
+// Sin transaccion activa las actualizaciones se aplican al momento; con ella, tras el commit
+class PresenciaServiceImplTests {
+
+    private static final LocalDate HOY = LocalDate.now();
+    private static final LocalDateTime ENTRADA = HOY.atTime(8, 0);
+    private static final LocalDateTime SALIDA = HOY.atTime(12, 0);
+
+    private final AsistenciaRepository asistenciaRepo = mock(AsistenciaRepository.class);
+    private final PresenciaServiceImpl presencia = new PresenciaServiceImpl(asistenciaRepo);
+
+    @Test
+    void checkinYCheckout() {
+        presencia.registrarEntrada(1L, "ana", ENTRADA);
+        PresenciaDto abierta = presencia.getPresenciaHoy("ana").orElseThrow();
+        assertTrue(abierta.isEnOficina());
+        assertEquals(ENTRADA, abierta.getEntrada());
+        assertEquals(List.of(1L), presencia.getPresentes().stream().map(PresenciaDto::getUsuarioId).toList());
+
+        presencia.registrarSalida(1L, "ana", ENTRADA, SALIDA);
+        PresenciaDto cerrada = presencia.getPresenciaHoy("ana").orElseThrow();
+        assertFalse(cerrada.isEnOficina());
+        assertEquals(SALIDA, cerrada.getSalida());
+        assertTrue(presencia.getPresentes().isEmpty());
+    }
+
+    @Test
+    void salidaDeUnaSesionAnteriorNoCierraLaActual() {
+        presencia.registrarEntrada(1L, "ana", HOY.atTime(13, 0));
+        presencia.registrarSalida(1L, "ana", ENTRADA, SALIDA);
+
+        PresenciaDto actual = presencia.getPresenciaHoy("ana").orElseThrow();
+        assertTrue(actual.isEnOficina());
+        assertEquals(HOY.atTime(13, 0), actual.getEntrada());
+    }
+
+    @Test
+    void marcacionesDeOtroDiaSeIgnoran() {
+        presencia.registrarEntrada(1L, "ana", ENTRADA.minusDays(1));
+        presencia.registrarSalida(1L, "ana", ENTRADA.minusDays(1), SALIDA.minusDays(1));
+
+        assertTrue(presencia.getPresenciaHoy("ana").isEmpty());
+        assertTrue(presencia.getPresentes().isEmpty());
+    }
+
+    @Test
+    void renombrarConservaLaSesion() {
+        presencia.registrarEntrada(1L, "ana", ENTRADA);
+        presencia.renombrarUsuario("ana", "ana.garcia");
+
+        assertTrue(presencia.getPresenciaHoy("ana").isEmpty());
+        PresenciaDto renombrada = presencia.getPresenciaHoy("ana.garcia").orElseThrow();
+        assertEquals("ana.garcia", renombrada.getUsername());
+        assertEquals(ENTRADA, renombrada.getEntrada());
+        assertEquals("ana.garcia", presencia.getPresentes().get(0).getUsername());
+    }
+
+    // El renombrado se aplica al confirmarse la transaccion; si se revierte se conserva el nombre anterior
+    @Test
+    void renombrarEsperaAlCommit() {
+        presencia.registrarEntrada(1L, "ana", ENTRADA);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            presencia.renombrarUsuario("ana", "ana.garcia");
+            assertTrue(presencia.getPresenciaHoy("ana").isPresent());
+            assertTrue(presencia.getPresenciaHoy("ana.garcia").isEmpty());
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals("ana", presencia.getPresenciaHoy("ana").orElseThrow().getUsername());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            presencia.renombrarUsuario("ana", "ana.garcia");
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertTrue(presencia.getPresenciaHoy("ana").isEmpty());
+        assertEquals("ana.garcia", presencia.getPresenciaHoy("ana.garcia").orElseThrow().getUsername());
+    }
+
+    @Test
+    void reconstruirCargaLaUltimaSesionDelDia() {
+        when(asistenciaRepo.findDelDiaConUsuario(HOY)).thenReturn(List.of(
+                new AsistenciaView(1L, 1L, "ana", ENTRADA, SALIDA, "COMPLETADO", HOY),
+                new AsistenciaView(2L, 1L, "ana", HOY.atTime(13, 0), null, "EN_OFICINA", HOY),
+                new AsistenciaView(3L, 2L, "luis", HOY.atTime(9, 0), HOY.atTime(10, 0), "COMPLETADO", HOY),
+                new AsistenciaView(4L, 3L, "eva", null, null, "FALTA", HOY)));
+
+        presencia.reconstruir();
+
+        assertEquals(HOY.atTime(13, 0), presencia.getPresenciaHoy("ana").orElseThrow().getEntrada());
+        assertFalse(presencia.getPresenciaHoy("luis").orElseThrow().isEnOficina());
+        assertTrue(presencia.getPresenciaHoy("eva").isEmpty());
+        assertEquals(List.of("ana"), presencia.getPresentes().stream().map(PresenciaDto::getUsername).toList());
+    }
+
+    // La lectura de reconstruir se hizo antes de que se confirmara el check-out
+    @Test
+    void reconstruirNoReabreUnaSesionCerradaEntretanto() {
+        when(asistenciaRepo.findDelDiaConUsuario(HOY)).thenReturn(List.of(
+                new AsistenciaView(1L, 1L, "ana", ENTRADA, null, "EN_OFICINA", HOY)));
+
+        presencia.registrarEntrada(1L, "ana", ENTRADA);
+        presencia.registrarSalida(1L, "ana", ENTRADA, SALIDA);
+        presencia.reconstruir();
+        assertEquals(SALIDA, presencia.getPresenciaHoy("ana").orElseThrow().getSalida());
+
+        // Tambien si el check-out llega antes de que la reconstruccion haya cargado la sesion
+        PresenciaServiceImpl recienArrancado = new PresenciaServiceImpl(asistenciaRepo);
+        recienArrancado.registrarSalida(1L, "ana", ENTRADA, SALIDA);
+        recienArrancado.reconstruir();
+        assertFalse(recienArrancado.getPresenciaHoy("ana").orElseThrow().isEnOficina());
+        assertTrue(recienArrancado.getPresentes().isEmpty());
+    }
+}
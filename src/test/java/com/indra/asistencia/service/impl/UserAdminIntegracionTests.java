@@ -0,0 +1,53 @@
+package com.indra.asistencia.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.indra.asistencia.PruebaIntegracion;
+import com.indra.asistencia.SemillaPrueba.Datos;
+import com.indra.asistencia.repository.IUserRepository;
+
+class UserAdminIntegracionTests extends PruebaIntegracion {
+
+    @Autowired
+    private IUserRepository userRepo;
+
+    @Autowired
+    private UserServiceImpl userService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // La lectura siguiente a la edicion no sirve el usuario antiguo desde la cache de segundo nivel
+    @Test
+    void edicionDeUsuarioInvalidaCache() throws Exception {
+        Datos datos = semilla.sembrar(3);
+        assertTrue(userRepo.getByUserName(datos.empleado()).orElseThrow().isEnabled());
+
+        mockMvc.perform(semilla.conToken(put("/api/admin/usuarios/" + datos.empleadoId() + "/desactivar"), datos.admin()))
+                .andExpect(status().isOk());
+
+        assertFalse(userRepo.getByUserName(datos.empleado()).orElseThrow().isEnabled());
+    }
+
+    // Cambio hecho por otra instancia: al caducar la entrada de seguridad se relee de la BD, no de la
+    // cache de segundo nivel, que aun conserva el usuario anterior
+    @Test
+    void cacheDeSeguridadSeRellenaDesdeLaBd() {
+        Datos datos = semilla.sembrar(3);
+        assertTrue(userRepo.getByUserName(datos.empleado()).orElseThrow().isEnabled());
+        assertTrue(userService.loadUserByUsername(datos.empleado()).isEnabled());
+
+        jdbcTemplate.update("UPDATE users SET enabled = FALSE WHERE id = ?", datos.empleadoId());
+        assertTrue(userRepo.getByUserName(datos.empleado()).orElseThrow().isEnabled());
+        userService.invalidarCache(datos.empleado());
+
+        assertFalse(userService.loadUserByUsername(datos.empleado()).isEnabled());
+    }
+}